@@ -0,0 +1,399 @@
+package com.slg.module.config;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.*;
+
+/**
+ * 列式配置表（@ColumnarConfig），每个数值列一个基本类型数组，可选堆外
+ * 1，int/boolean 存为 IntColumn（boolean 为 0/1），long 存为 LongColumn，float/double 存为 DoubleColumn
+ * 2，其他类型（String、Date 等）存为引用数组
+ * 3，包装类型为 null 时存 0
+ * 4，行号即表中顺序，int @Id 可通过 rowOf 二分查找行号
+ */
+public final class ColumnarTable {
+    private final String name;
+    private final int rowCount;
+    private final boolean offHeap;
+    private final Map<String, IntColumn> intColumns;
+    private final Map<String, LongColumn> longColumns;
+    private final Map<String, DoubleColumn> doubleColumns;
+    private final Map<String, Object[]> objectColumns;
+    // 按 id 升序的 id 和对应行号
+    private final int[] sortedIds;
+    private final int[] sortedRows;
+
+    private ColumnarTable(String name, int rowCount, boolean offHeap, Map<String, IntColumn> intColumns,
+                          Map<String, LongColumn> longColumns, Map<String, DoubleColumn> doubleColumns,
+                          Map<String, Object[]> objectColumns, int[] sortedIds, int[] sortedRows) {
+        this.name = name;
+        this.rowCount = rowCount;
+        this.offHeap = offHeap;
+        this.intColumns = intColumns;
+        this.longColumns = longColumns;
+        this.doubleColumns = doubleColumns;
+        this.objectColumns = objectColumns;
+        this.sortedIds = sortedIds;
+        this.sortedRows = sortedRows;
+    }
+
+    /**
+     * 由加载出的行对象转为列存储，行对象随后可被回收
+     */
+    static ColumnarTable build(Class<? extends GameConfig> configClass, List<GameConfig> rows, boolean offHeap, String filePath) {
+        ConfigBinder binder = ConfigBinder.of(configClass);
+        int rowCount = rows.size();
+        Map<String, IntColumn> intColumns = new HashMap<>();
+        Map<String, LongColumn> longColumns = new HashMap<>();
+        Map<String, DoubleColumn> doubleColumns = new HashMap<>();
+        Map<String, Object[]> objectColumns = new HashMap<>();
+        for (ConfigBinder.FieldBinder field : binder.getFields().values()) {
+            ConfigBinder.Kind kind = field.getKind();
+            if (kind == ConfigBinder.Kind.INT || kind == ConfigBinder.Kind.BOOLEAN) {
+                int[] values = new int[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    Object value = field.get(rows.get(i));
+                    values[i] = value == null ? 0 : value instanceof Boolean ? ((Boolean) value ? 1 : 0) : ((Number) value).intValue();
+                }
+                intColumns.put(field.getName(), new IntColumn(values, offHeap));
+            } else if (kind == ConfigBinder.Kind.LONG) {
+                long[] values = new long[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    Object value = field.get(rows.get(i));
+                    values[i] = value == null ? 0 : ((Number) value).longValue();
+                }
+                longColumns.put(field.getName(), new LongColumn(values, offHeap));
+            } else if (kind == ConfigBinder.Kind.FLOAT || kind == ConfigBinder.Kind.DOUBLE) {
+                double[] values = new double[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    Object value = field.get(rows.get(i));
+                    values[i] = value == null ? 0 : ((Number) value).doubleValue();
+                }
+                doubleColumns.put(field.getName(), new DoubleColumn(values, offHeap));
+            } else {
+                Object[] values = new Object[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = field.get(rows.get(i));
+                }
+                objectColumns.put(field.getName(), values);
+            }
+        }
+        int[] sortedIds = null;
+        int[] sortedRows = null;
+        ConfigBinder.FieldBinder idField = binder.getIdField();
+        if (idField != null && idField.getKind() == ConfigBinder.Kind.INT) {
+            long[] pairs = new long[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                // 高 32 位 id（翻转符号位保证有符号排序），低 32 位行号
+                pairs[i] = ((long) (idField.getInt(rows.get(i)) ^ Integer.MIN_VALUE) << 32) | i;
+            }
+            Arrays.sort(pairs);
+            sortedIds = new int[rowCount];
+            sortedRows = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                sortedIds[i] = (int) (pairs[i] >>> 32) ^ Integer.MIN_VALUE;
+                sortedRows[i] = (int) pairs[i];
+                if (i > 0 && sortedIds[i] == sortedIds[i - 1]) {
+                    throw new RuntimeException("config key duplicate: " + filePath + ", key: " + sortedIds[i]);
+                }
+            }
+        }
+        return new ColumnarTable(configClass.getSimpleName(), rowCount, offHeap, intColumns, longColumns,
+                doubleColumns, objectColumns, sortedIds, sortedRows);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * int @Id 对应的行号，不存在返回 -1
+     */
+    public int rowOf(int id) {
+        if (sortedIds == null) {
+            throw new IllegalStateException("columnar config has no int id: " + name);
+        }
+        int index = Arrays.binarySearch(sortedIds, id);
+        return index < 0 ? -1 : sortedRows[index];
+    }
+
+    public IntColumn intColumn(String column) {
+        return column(intColumns, column);
+    }
+
+    public LongColumn longColumn(String column) {
+        return column(longColumns, column);
+    }
+
+    public DoubleColumn doubleColumn(String column) {
+        return column(doubleColumns, column);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T getObject(String column, int row) {
+        return (T) column(objectColumns, column)[row];
+    }
+
+    private <C> C column(Map<String, C> columns, String column) {
+        C result = columns.get(column);
+        if (result == null) {
+            throw new IllegalArgumentException("columnar config column not exist or type mismatch: " + name + "." + column);
+        }
+        return result;
+    }
+
+    /**
+     * 堆内占用（字节，估算：数组头 16 字节，引用 4 字节，不含引用对象本身）
+     */
+    public long heapBytes() {
+        long bytes = 0;
+        for (IntColumn column : intColumns.values()) {
+            bytes += column.heapBytes();
+        }
+        for (LongColumn column : longColumns.values()) {
+            bytes += column.heapBytes();
+        }
+        for (DoubleColumn column : doubleColumns.values()) {
+            bytes += column.heapBytes();
+        }
+        bytes += objectColumns.size() * (16L + 4L * rowCount);
+        if (sortedIds != null) {
+            bytes += 2 * (16L + 4L * rowCount);
+        }
+        return bytes;
+    }
+
+    /**
+     * 堆外占用（字节）
+     */
+    public long offHeapBytes() {
+        if (!offHeap) {
+            return 0;
+        }
+        return (long) rowCount * (intColumns.size() * 4L + longColumns.size() * 8L + doubleColumns.size() * 8L);
+    }
+
+    public String memoryReport() {
+        return "columnar config: " + name + ", rows: " + rowCount
+                + ", columns: int " + intColumns.size() + "/long " + longColumns.size() + "/double " + doubleColumns.size() + "/object " + objectColumns.size()
+                + ", heap: " + heapBytes() + "B, offHeap: " + offHeapBytes() + "B";
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * int 列（boolean 列为 0/1）
+     */
+    public static final class IntColumn {
+        private final int[] heap;
+        private final IntBuffer direct;
+        private final int size;
+
+        IntColumn(int[] values, boolean offHeap) {
+            this.size = values.length;
+            if (offHeap) {
+                this.direct = direct(values.length * 4).asIntBuffer().put(values).flip();
+                this.heap = null;
+            } else {
+                this.heap = values;
+                this.direct = null;
+            }
+        }
+
+        public int get(int row) {
+            return heap != null ? heap[row] : direct.get(row);
+        }
+
+        public boolean getBoolean(int row) {
+            return get(row) != 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long sum() {
+            long sum = 0;
+            if (heap != null) {
+                for (int value : heap) {
+                    sum += value;
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    sum += direct.get(i);
+                }
+            }
+            return sum;
+        }
+
+        public int max() {
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, get(i));
+            }
+            return max;
+        }
+
+        public int min() {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, get(i));
+            }
+            return min;
+        }
+
+        public int countEquals(int value) {
+            int count = 0;
+            if (heap != null) {
+                for (int v : heap) {
+                    count += v == value ? 1 : 0;
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    count += direct.get(i) == value ? 1 : 0;
+                }
+            }
+            return count;
+        }
+
+        public int countInRange(int min, int max) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int v = get(i);
+                count += v >= min && v <= max ? 1 : 0;
+            }
+            return count;
+        }
+
+        /**
+         * 第一个等于 value 的行号（从 fromRow 开始），没有返回 -1
+         * 可循环调用遍历所有匹配行：for (int r = c.indexOf(v, 0); r >= 0; r = c.indexOf(v, r + 1))
+         */
+        public int indexOf(int value, int fromRow) {
+            for (int i = fromRow; i < size; i++) {
+                if (get(i) == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        long heapBytes() {
+            return heap != null ? 16L + 4L * size : 64;
+        }
+    }
+
+    public static final class LongColumn {
+        private final long[] heap;
+        private final LongBuffer direct;
+        private final int size;
+
+        LongColumn(long[] values, boolean offHeap) {
+            this.size = values.length;
+            if (offHeap) {
+                this.direct = direct(values.length * 8).asLongBuffer().put(values).flip();
+                this.heap = null;
+            } else {
+                this.heap = values;
+                this.direct = null;
+            }
+        }
+
+        public long get(int row) {
+            return heap != null ? heap[row] : direct.get(row);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long sum() {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += get(i);
+            }
+            return sum;
+        }
+
+        public long max() {
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, get(i));
+            }
+            return max;
+        }
+
+        public long min() {
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, get(i));
+            }
+            return min;
+        }
+
+        long heapBytes() {
+            return heap != null ? 16L + 8L * size : 64;
+        }
+    }
+
+    /**
+     * double 列（float 字段也存为 double）
+     */
+    public static final class DoubleColumn {
+        private final double[] heap;
+        private final DoubleBuffer direct;
+        private final int size;
+
+        DoubleColumn(double[] values, boolean offHeap) {
+            this.size = values.length;
+            if (offHeap) {
+                this.direct = direct(values.length * 8).asDoubleBuffer().put(values).flip();
+                this.heap = null;
+            } else {
+                this.heap = values;
+                this.direct = null;
+            }
+        }
+
+        public double get(int row) {
+            return heap != null ? heap[row] : direct.get(row);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double sum() {
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += get(i);
+            }
+            return sum;
+        }
+
+        public double max() {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, get(i));
+            }
+            return max;
+        }
+
+        public double min() {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                min = Math.min(min, get(i));
+            }
+            return min;
+        }
+
+        long heapBytes() {
+            return heap != null ? 16L + 8L * size : 64;
+        }
+    }
+}
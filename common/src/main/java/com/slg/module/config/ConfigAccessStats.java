@@ -0,0 +1,106 @@
+package com.slg.module.config;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 配置表访问统计（每个配置类一份，重载后继续累计）
+ * 1，表级访问次数始终记录（LongAdder，多线程无竞争）
+ * 2，按 key 统计需 -Dconfig.stats=true 开启，int key 会装箱，最多记录 MAX_KEYS 个 key
+ */
+public final class ConfigAccessStats {
+    private static final ConcurrentHashMap<Class<?>, ConfigAccessStats> STATS = new ConcurrentHashMap<>();
+    private static final boolean KEY_STATS = Boolean.getBoolean("config.stats");
+    private static final int MAX_KEYS = 1 << 16;
+
+    private final Class<?> configClass;
+    private final LongAdder accessCount = new LongAdder();
+    private final ConcurrentHashMap<Object, LongAdder> keyCounts;
+
+    private ConfigAccessStats(Class<?> configClass) {
+        this.configClass = configClass;
+        this.keyCounts = KEY_STATS ? new ConcurrentHashMap<>() : null;
+    }
+
+    public static ConfigAccessStats of(Class<?> configClass) {
+        return STATS.computeIfAbsent(configClass, ConfigAccessStats::new);
+    }
+
+    public static Collection<ConfigAccessStats> all() {
+        return Collections.unmodifiableCollection(STATS.values());
+    }
+
+    void record() {
+        accessCount.increment();
+    }
+
+    void recordKey(Object key) {
+        accessCount.increment();
+        if (keyCounts != null && key != null) {
+            LongAdder counter = keyCounts.get(key);
+            if (counter == null) {
+                if (keyCounts.size() >= MAX_KEYS) {
+                    return;
+                }
+                counter = keyCounts.computeIfAbsent(key, k -> new LongAdder());
+            }
+            counter.increment();
+        }
+    }
+
+    void recordKey(int key) {
+        if (keyCounts != null) {
+            recordKey((Object) key);
+        } else {
+            accessCount.increment();
+        }
+    }
+
+    public Class<?> getConfigClass() {
+        return configClass;
+    }
+
+    public long getAccessCount() {
+        return accessCount.sum();
+    }
+
+    /**
+     * 访问次数最多的 key，未开启 key 统计时返回空
+     */
+    public List<Map.Entry<Object, Long>> topKeys(int limit) {
+        if (keyCounts == null) {
+            return Collections.emptyList();
+        }
+        List<Map.Entry<Object, Long>> entries = new ArrayList<>(keyCounts.size());
+        keyCounts.forEach((key, counter) -> entries.add(new AbstractMap.SimpleImmutableEntry<>(key, counter.sum())));
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    public void reset() {
+        accessCount.reset();
+        if (keyCounts != null) {
+            keyCounts.clear();
+        }
+    }
+
+    /**
+     * 按访问次数降序输出所有表，未访问的表标记为 cold
+     */
+    public static String report(int topKeys) {
+        List<ConfigAccessStats> list = new ArrayList<>(STATS.values());
+        list.sort((a, b) -> Long.compare(b.getAccessCount(), a.getAccessCount()));
+        StringBuilder sb = new StringBuilder("config access stats:");
+        for (ConfigAccessStats stats : list) {
+            long count = stats.getAccessCount();
+            sb.append('\n').append(stats.configClass.getSimpleName()).append(": ").append(count);
+            if (count == 0) {
+                sb.append(" (cold)");
+            } else if (topKeys > 0 && stats.keyCounts != null) {
+                sb.append(", top keys: ").append(stats.topKeys(topKeys));
+            }
+        }
+        return sb.toString();
+    }
+}
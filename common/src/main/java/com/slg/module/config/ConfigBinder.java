@@ -0,0 +1,414 @@
+package com.slg.module.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 配置类字段绑定（每个配置类创建一次）
+ * 1，字段、构造器在创建时解析为 MethodHandle，加载时按字段名取 setter 直接写入，不再逐行反射查找字段
+ * 2，按字段类型预先确定转换方式，支持 String 和各基本类型值直接写入（快照、流式解析无需先转字符串）
+ * 3，配置字段必须为 final（与原 setAttr 规则一致），final 实例字段通过 setAccessible 后的 unreflectSetter 写入
+ */
+public final class ConfigBinder {
+    private static final ConcurrentHashMap<Class<?>, ConfigBinder> BINDERS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
+
+    private final Class<?> configClass;
+    private final MethodHandle constructor;
+    private final Map<String, FieldBinder> fields;
+    private final FieldBinder idField;
+
+    public static ConfigBinder of(Class<?> configClass) {
+        return BINDERS.computeIfAbsent(configClass, ConfigBinder::new);
+    }
+
+    private ConfigBinder(Class<?> configClass) {
+        this.configClass = configClass;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle ctor = null;
+        try {
+            Constructor<?> declared = configClass.getDeclaredConstructor();
+            declared.setAccessible(true);
+            ctor = lookup.unreflectConstructor(declared).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 无无参构造器时 newInstance 抛异常，字段绑定仍可用
+        }
+        this.constructor = ctor;
+        Map<String, FieldBinder> fields = new HashMap<>();
+        FieldBinder id = null;
+        // 子类字段优先，与原 getClassField 查找顺序一致
+        for (Class<?> cls = configClass; cls != null && cls != GameConfig.class && cls != Object.class; cls = cls.getSuperclass()) {
+            for (Field field : cls.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || fields.containsKey(field.getName())) {
+                    continue;
+                }
+                FieldBinder binder = new FieldBinder(configClass, field, lookup);
+                fields.put(field.getName(), binder);
+                if (field.isAnnotationPresent(ConfigManager.Id.class)) {
+                    if (id != null) {
+                        throw new RuntimeException("config id annotation duplicate: " + configClass.getName() + ", nodeName: " + field.getName());
+                    }
+                    id = binder;
+                }
+            }
+        }
+        this.fields = Collections.unmodifiableMap(fields);
+        this.idField = id;
+    }
+
+    /**
+     * 日期字段的文本格式（yyyy-MM-dd HH:mm:ss）
+     */
+    static Date parseDate(String value) throws ParseException {
+        return DATE_FORMAT.get().parse(value);
+    }
+
+    static String formatDate(Date value) {
+        return DATE_FORMAT.get().format(value);
+    }
+
+    public Object newInstance() throws Exception {
+        if (constructor == null) {
+            throw new RuntimeException("config class need no-arg constructor: " + configClass.getName());
+        }
+        try {
+            return constructor.invokeExact();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * 字段绑定，字段不存在时抛异常
+     */
+    public FieldBinder field(String name) {
+        FieldBinder binder = fields.get(name);
+        if (binder == null) {
+            throw new RuntimeException("config class cannot find field, class: " + configClass.getName() + ", field: " + name);
+        }
+        return binder;
+    }
+
+    public Map<String, FieldBinder> getFields() {
+        return fields;
+    }
+
+    /**
+     * @Id 字段，没有返回 null
+     */
+    public FieldBinder getIdField() {
+        return idField;
+    }
+
+    /**
+     * 两个实例的所有字段值是否相同
+     */
+    public boolean sameValues(Object a, Object b) {
+        for (FieldBinder field : fields.values()) {
+            if (!Objects.equals(field.get(a), field.get(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取实例的主键（仅支持 int/Integer/String 类型的 @Id 字段），没有返回 null
+     */
+    public Object idOf(Object instance) {
+        if (idField == null || (idField.kind != Kind.INT && idField.kind != Kind.STRING)) {
+            return null;
+        }
+        return idField.get(instance);
+    }
+
+    enum Kind {
+        BOOLEAN, INT, LONG, FLOAT, DOUBLE, STRING, DATE
+    }
+
+    /**
+     * 单个字段的类型化 setter
+     */
+    public static final class FieldBinder {
+        private final Field field;
+        private final Kind kind;
+        private final boolean primitive;
+        // @Symbol：字符串值转为 ConfigSymbols id
+        private final boolean symbol;
+        // (Object, 基本类型/Object)void，按 kind 对应的类型调用
+        private final MethodHandle setter;
+        // (Object, Object)void，写 null 和引用类型，基本类型字段为 null
+        private final MethodHandle objectSetter;
+        private final MethodHandle getter;
+        // (Object)int，仅 int 字段
+        private final MethodHandle intGetter;
+
+        FieldBinder(Class<?> configClass, Field field, MethodHandles.Lookup lookup) {
+            this.field = field;
+            Class<?> type = field.getType();
+            this.primitive = type.isPrimitive();
+            this.kind = kindOf(type);
+            this.symbol = field.isAnnotationPresent(ConfigManager.Symbol.class);
+            if (symbol && kind != Kind.INT) {
+                throw new RuntimeException("config symbol field must be int, class: " + configClass.getName() + ", field: " + field.getName());
+            }
+            MethodHandle setter = null;
+            MethodHandle objectSetter = null;
+            MethodHandle getter;
+            MethodHandle intGetter = null;
+            try {
+                field.setAccessible(true);
+                MethodHandle rawGetter = lookup.unreflectGetter(field);
+                getter = rawGetter.asType(MethodType.methodType(Object.class, Object.class));
+                if (type == int.class) {
+                    intGetter = rawGetter.asType(MethodType.methodType(int.class, Object.class));
+                }
+                if (kind != null && (field.getModifiers() & Modifier.FINAL) != 0) {
+                    MethodHandle raw = lookup.unreflectSetter(field);
+                    setter = raw.asType(MethodType.methodType(void.class, Object.class, carrierOf(kind)));
+                    objectSetter = primitive ? null : raw.asType(MethodType.methodType(void.class, Object.class, Object.class));
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new RuntimeException("config field not accessible, class: " + configClass.getName() + ", field: " + field.getName(), e);
+            }
+            this.setter = setter;
+            this.objectSetter = objectSetter;
+            this.getter = getter;
+            this.intGetter = intGetter;
+        }
+
+        private static Kind kindOf(Class<?> type) {
+            if (type == boolean.class || type == Boolean.class) {
+                return Kind.BOOLEAN;
+            } else if (type == int.class || type == Integer.class) {
+                return Kind.INT;
+            } else if (type == long.class || type == Long.class) {
+                return Kind.LONG;
+            } else if (type == float.class || type == Float.class) {
+                return Kind.FLOAT;
+            } else if (type == double.class || type == Double.class) {
+                return Kind.DOUBLE;
+            } else if (type == String.class) {
+                return Kind.STRING;
+            } else if (type == Date.class) {
+                return Kind.DATE;
+            }
+            return null;
+        }
+
+        private static Class<?> carrierOf(Kind kind) {
+            return switch (kind) {
+                case BOOLEAN -> boolean.class;
+                case INT -> int.class;
+                case LONG -> long.class;
+                case FLOAT -> float.class;
+                case DOUBLE -> double.class;
+                case STRING, DATE -> Object.class;
+            };
+        }
+
+        public String getName() {
+            return field.getName();
+        }
+
+        public Class<?> getType() {
+            return field.getType();
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        boolean isSymbol() {
+            return symbol;
+        }
+
+        private void check(Object instance) {
+            if (setter == null) {
+                if ((field.getModifiers() & Modifier.FINAL) == 0) {
+                    throw new RuntimeException("config attribute must be final, class: " + instance.getClass().getSimpleName() + ", field: " + field.getName());
+                }
+                throw new RuntimeException("cannot support property type: " + field.getType());
+            }
+        }
+
+        /**
+         * 按字符串写入（JSON 文本值）
+         */
+        public void setString(Object instance, String value) throws Exception {
+            check(instance);
+            if (symbol) {
+                setInt(instance, ConfigSymbols.intern(value));
+                return;
+            }
+            if (value == null && !primitive) {
+                invokeObject(instance, null);
+                return;
+            }
+            switch (kind) {
+                case BOOLEAN -> setBoolean(instance, "1".equals(value) || (!"0".equals(value) && Boolean.parseBoolean(value)));
+                case INT -> setInt(instance, parseInt(value));
+                case LONG -> setLong(instance, parseLong(value));
+                case FLOAT -> invokeFloat(instance, Float.parseFloat(value));
+                case DOUBLE -> setDouble(instance, Double.parseDouble(value));
+                case STRING -> invokeObject(instance, value);
+                case DATE -> invokeObject(instance, DATE_FORMAT.get().parse(value));
+            }
+        }
+
+        /**
+         * 小数文本（快照中保存的 JSON 小数原文）按截断取整，与 JSON 加载的 readInt32Value 一致
+         */
+        private static int parseInt(String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(value).intValue();
+            }
+        }
+
+        private static long parseLong(String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(value).longValue();
+            }
+        }
+
+        public void setBoolean(Object instance, boolean value) throws Exception {
+            check(instance);
+            switch (kind) {
+                case BOOLEAN -> {
+                    try {
+                        setter.invokeExact(instance, value);
+                    } catch (Throwable t) {
+                        throw rethrow(t);
+                    }
+                }
+                case INT, LONG, FLOAT, DOUBLE -> setInt(instance, value ? 1 : 0);
+                default -> setString(instance, String.valueOf(value));
+            }
+        }
+
+        public void setInt(Object instance, int value) throws Exception {
+            check(instance);
+            try {
+                switch (kind) {
+                    case INT -> setter.invokeExact(instance, value);
+                    case LONG -> setter.invokeExact(instance, (long) value);
+                    case FLOAT -> setter.invokeExact(instance, (float) value);
+                    case DOUBLE -> setter.invokeExact(instance, (double) value);
+                    case BOOLEAN -> setter.invokeExact(instance, value != 0);
+                    default -> setString(instance, Integer.toString(value));
+                }
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        public void setLong(Object instance, long value) throws Exception {
+            check(instance);
+            try {
+                switch (kind) {
+                    case LONG -> setter.invokeExact(instance, value);
+                    case INT -> setter.invokeExact(instance, Math.toIntExact(value));
+                    case FLOAT -> setter.invokeExact(instance, (float) value);
+                    case DOUBLE -> setter.invokeExact(instance, (double) value);
+                    case BOOLEAN -> setter.invokeExact(instance, value != 0);
+                    default -> setString(instance, Long.toString(value));
+                }
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        public void setDouble(Object instance, double value) throws Exception {
+            check(instance);
+            try {
+                switch (kind) {
+                    case DOUBLE -> setter.invokeExact(instance, value);
+                    case FLOAT -> setter.invokeExact(instance, (float) value);
+                    // 整数字段与 Integer.valueOf("1.5") 一致，报错
+                    default -> setString(instance, Double.toString(value));
+                }
+            } catch (Exception e) {
+                throw e;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        public Object get(Object instance) {
+            try {
+                return getter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        /**
+         * 读取 int/Integer 字段，Integer 为 null 时抛 NPE
+         */
+        public int getInt(Object instance) {
+            if (intGetter == null) {
+                return ((Number) get(instance)).intValue();
+            }
+            try {
+                return (int) intGetter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        private void invokeFloat(Object instance, float value) {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        private void invokeObject(Object instance, Object value) {
+            try {
+                objectSetter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable t) {
+            if (t instanceof RuntimeException) {
+                return (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            return new RuntimeException(t);
+        }
+    }
+}
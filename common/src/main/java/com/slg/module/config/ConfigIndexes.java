@@ -0,0 +1,229 @@
+package com.slg.module.config;
+
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.LongObjectHashMap;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 配置表二级索引（加载时构建，之后只读）
+ * 1，int 主键（@Id 为 int）和 @Index 唯一索引：IntObjectHashMap，查询不装箱
+ * 2，@GroupIndex 分组索引：1~2 个 int 字段组合为 long key，值为不可变列表
+ * 3，@RangeIndex 范围索引：按字段值排序的 int[] + 行数组，二分查找后顺序遍历
+ */
+final class ConfigIndexes {
+    static final ConfigIndexes EMPTY = new ConfigIndexes(null, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final IntObjectHashMap<GameConfig> primary;
+    private final Map<String, IntObjectHashMap<GameConfig>> uniqueIndexes;
+    private final Map<String, GroupIndex> groupIndexes;
+    private final Map<String, RangeIndex> rangeIndexes;
+
+    private ConfigIndexes(IntObjectHashMap<GameConfig> primary, Map<String, IntObjectHashMap<GameConfig>> uniqueIndexes,
+                          Map<String, GroupIndex> groupIndexes, Map<String, RangeIndex> rangeIndexes) {
+        this.primary = primary;
+        this.uniqueIndexes = uniqueIndexes;
+        this.groupIndexes = groupIndexes;
+        this.rangeIndexes = rangeIndexes;
+    }
+
+    static ConfigIndexes build(Class<? extends GameConfig> configClass, List<GameConfig> rows, String filePath) {
+        ConfigBinder binder = ConfigBinder.of(configClass);
+        IntObjectHashMap<GameConfig> primary = null;
+        ConfigBinder.FieldBinder idField = binder.getIdField();
+        if (idField != null && idField.getKind() == ConfigBinder.Kind.INT) {
+            primary = buildUnique(idField, rows, filePath);
+        }
+        Map<String, IntObjectHashMap<GameConfig>> uniqueIndexes = new HashMap<>();
+        Map<String, List<ConfigBinder.FieldBinder>> groupFields = new TreeMap<>();
+        Map<String, RangeIndex> rangeIndexes = new HashMap<>();
+        for (ConfigBinder.FieldBinder field : binder.getFields().values()) {
+            ConfigManager.Index index = field.getField().getAnnotation(ConfigManager.Index.class);
+            ConfigManager.GroupIndex group = field.getField().getAnnotation(ConfigManager.GroupIndex.class);
+            ConfigManager.RangeIndex range = field.getField().getAnnotation(ConfigManager.RangeIndex.class);
+            if ((index != null || group != null || range != null) && field.getKind() != ConfigBinder.Kind.INT) {
+                throw new RuntimeException("config index field must be int, class: " + configClass.getSimpleName() + ", field: " + field.getName());
+            }
+            if (index != null) {
+                uniqueIndexes.put(field.getName(), buildUnique(field, rows, filePath));
+            }
+            if (group != null) {
+                groupFields.computeIfAbsent(group.value(), k -> new ArrayList<>()).add(field);
+            }
+            if (range != null) {
+                rangeIndexes.put(field.getName(), RangeIndex.build(field, rows));
+            }
+        }
+        Map<String, GroupIndex> groupIndexes = new HashMap<>();
+        for (Map.Entry<String, List<ConfigBinder.FieldBinder>> entry : groupFields.entrySet()) {
+            List<ConfigBinder.FieldBinder> fields = entry.getValue();
+            if (fields.size() > 2) {
+                throw new RuntimeException("config group index support at most 2 fields, class: " + configClass.getSimpleName() + ", group: " + entry.getKey());
+            }
+            fields.sort(Comparator.comparingInt(f -> f.getField().getAnnotation(ConfigManager.GroupIndex.class).order()));
+            groupIndexes.put(entry.getKey(), GroupIndex.build(fields, rows));
+        }
+        if (primary == null && uniqueIndexes.isEmpty() && groupIndexes.isEmpty() && rangeIndexes.isEmpty()) {
+            return EMPTY;
+        }
+        return new ConfigIndexes(primary, uniqueIndexes, groupIndexes, rangeIndexes);
+    }
+
+    private static IntObjectHashMap<GameConfig> buildUnique(ConfigBinder.FieldBinder field, List<GameConfig> rows, String filePath) {
+        IntObjectHashMap<GameConfig> map = new IntObjectHashMap<>(rows.size() * 2);
+        for (GameConfig row : rows) {
+            if (field.get(row) == null) {
+                continue;
+            }
+            int key = field.getInt(row);
+            if (map.put(key, row) != null) {
+                throw new RuntimeException("config index key duplicate: " + filePath + ", field: " + field.getName() + ", key: " + key);
+            }
+        }
+        return map;
+    }
+
+    GameConfig getByPrimary(int key) {
+        return primary == null ? null : primary.get(key);
+    }
+
+    GameConfig getByIndex(String field, int key) {
+        IntObjectHashMap<GameConfig> index = uniqueIndexes.get(field);
+        if (index == null) {
+            throw new IllegalArgumentException("config index not exist: " + field);
+        }
+        return index.get(key);
+    }
+
+    List<GameConfig> getGroup(String group, int first, int second) {
+        GroupIndex index = groupIndexes.get(group);
+        if (index == null) {
+            throw new IllegalArgumentException("config group index not exist: " + group);
+        }
+        return index.get(first, second);
+    }
+
+    RangeIndex getRange(String field) {
+        RangeIndex index = rangeIndexes.get(field);
+        if (index == null) {
+            throw new IllegalArgumentException("config range index not exist: " + field);
+        }
+        return index;
+    }
+
+    static long groupKey(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    private static final class GroupIndex {
+        private final LongObjectHashMap<List<GameConfig>> groups;
+        private final int arity;
+
+        GroupIndex(LongObjectHashMap<List<GameConfig>> groups, int arity) {
+            this.groups = groups;
+            this.arity = arity;
+        }
+
+        static GroupIndex build(List<ConfigBinder.FieldBinder> fields, List<GameConfig> rows) {
+            ConfigBinder.FieldBinder first = fields.get(0);
+            ConfigBinder.FieldBinder second = fields.size() > 1 ? fields.get(1) : null;
+            LongObjectHashMap<List<GameConfig>> building = new LongObjectHashMap<>();
+            for (GameConfig row : rows) {
+                if (first.get(row) == null || (second != null && second.get(row) == null)) {
+                    continue;
+                }
+                long key = groupKey(first.getInt(row), second == null ? 0 : second.getInt(row));
+                List<GameConfig> list = building.get(key);
+                if (list == null) {
+                    list = new ArrayList<>(4);
+                    building.put(key, list);
+                }
+                list.add(row);
+            }
+            LongObjectHashMap<List<GameConfig>> groups = new LongObjectHashMap<>(building.size() * 2);
+            for (Map.Entry<Long, List<GameConfig>> entry : building.entrySet()) {
+                groups.put(entry.getKey(), List.copyOf(entry.getValue()));
+            }
+            return new GroupIndex(groups, fields.size());
+        }
+
+        List<GameConfig> get(int first, int second) {
+            List<GameConfig> list = groups.get(groupKey(first, arity > 1 ? second : 0));
+            return list == null ? Collections.emptyList() : list;
+        }
+    }
+
+    /**
+     * 范围索引，行按字段值升序
+     */
+    static final class RangeIndex {
+        private final int[] keys;
+        private final GameConfig[] rows;
+
+        private RangeIndex(int[] keys, GameConfig[] rows) {
+            this.keys = keys;
+            this.rows = rows;
+        }
+
+        static RangeIndex build(ConfigBinder.FieldBinder field, List<GameConfig> rows) {
+            List<GameConfig> present = new ArrayList<>(rows.size());
+            for (GameConfig row : rows) {
+                if (field.get(row) != null) {
+                    present.add(row);
+                }
+            }
+            // 稳定排序，相同值保持表中顺序
+            present.sort(Comparator.comparingInt(field::getInt));
+            int[] keys = new int[present.size()];
+            GameConfig[] sorted = new GameConfig[present.size()];
+            for (int i = 0; i < keys.length; i++) {
+                sorted[i] = present.get(i);
+                keys[i] = field.getInt(sorted[i]);
+            }
+            return new RangeIndex(keys, sorted);
+        }
+
+        /**
+         * 第一个 >= key 的位置
+         */
+        private int lowerBound(int key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> void forEachInRange(int min, int max, Consumer<T> action) {
+            for (int i = lowerBound(min); i < keys.length && keys[i] <= max; i++) {
+                action.accept((T) rows[i]);
+            }
+        }
+
+        int countInRange(int min, int max) {
+            if (min > max) {
+                return 0;
+            }
+            int from = lowerBound(min);
+            int to = max == Integer.MAX_VALUE ? keys.length : lowerBound(max + 1);
+            return to - from;
+        }
+
+        /**
+         * 值 <= key 的最后一行（等级曲线等按阈值查找），没有返回 null
+         */
+        @SuppressWarnings("unchecked")
+        <T> T floor(int key) {
+            int index = key == Integer.MAX_VALUE ? keys.length : lowerBound(key + 1);
+            return index == 0 ? null : (T) rows[index - 1];
+        }
+    }
+}
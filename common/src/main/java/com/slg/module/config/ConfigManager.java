@@ -1,17 +1,23 @@
 package com.slg.module.config;
 
 
+import com.slg.module.register.NacosServiceDiscovery;
+import com.slg.module.register.ServiceDiscovery;
+import com.slg.module.util.NacosClientUtil;
 import com.slg.module.util.StringUtil;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.*;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 public class ConfigManager {
 
@@ -19,23 +25,152 @@ public class ConfigManager {
 
     private String configFilePackage;
 
-    private ConcurrentHashMap<Class<? extends GameConfig>, ConfigStore> storages;
+    // 当前生效的配置版本，重载时整体替换
+    private final AtomicReference<ConfigVersion> current = new AtomicReference<>(ConfigVersion.EMPTY);
+
+    // 扫描到的配置类及路径，首次加载时扫描一次
+    private volatile Map<Class<? extends GameConfig>, String> configPaths;
+
+    // 重载线程，文件变化/Nacos 通知合并后在此执行
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "config-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pendingReload;
+    private volatile Thread watchThread;
 
     public ConfigManager(String configFilePackage) {
         this.configRootPath = System.getProperty("user.dir")+File.separator+"config"+File.separator;
         this.configFilePackage = configFilePackage;
-        this.storages = new ConcurrentHashMap<>();
         System.out.println(this.configRootPath);
     }
 
+    /**
+     * 打开配置快照（-Dconfig.snapshot 指定路径，默认 config 目录下 config.snapshot），不存在或损坏返回 null
+     */
+    private ConfigSnapshot openSnapshot() {
+        File file = new File(System.getProperty("config.snapshot", this.configRootPath + ConfigSnapshot.DEFAULT_FILE_NAME));
+        try {
+            ConfigSnapshot snapshot = ConfigSnapshot.open(file);
+            if (snapshot != null) {
+                System.out.println("config snapshot: " + file + ", tables: " + snapshot.tables().size());
+            }
+            return snapshot;
+        } catch (IOException e) {
+            System.err.println("config snapshot open failed, load from source: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 快照中有该表且与源文件一致（-Dconfig.snapshot.verify=false 时不校验）则从快照加载，否则解析源文件
+     * JSON 编译的表与配置目录下的源文件比较；Excel 编译的表与 -Dconfig.excel.dir 下的 xlsx 比较，未设置时以快照为准
+     */
+    private boolean loadStore(ConfigStore configStore, ConfigSnapshot snapshot, String path) {
+        String filePath = this.configRootPath + path;
+        ConfigSnapshot.Table table = snapshot == null ? null : snapshot.table(path);
+        if (table != null) {
+            File source = snapshotSource(table, filePath);
+            try {
+                if (!Boolean.parseBoolean(System.getProperty("config.snapshot.verify", "true"))
+                        || source == null || ConfigSnapshot.matchesSource(table, source)) {
+                    return configStore.loadSnapshot(filePath, table);
+                }
+                System.out.println("config snapshot outdated: " + path);
+            } catch (IOException e) {
+                System.err.println("config snapshot verify failed: " + path + ", " + e.getMessage());
+            }
+        }
+        return configStore.loadData(this.configRootPath);
+    }
+
+    /**
+     * 快照表对应的源文件，无法校验时返回 null
+     */
+    private static File snapshotSource(ConfigSnapshot.Table table, String filePath) {
+        if (table.getSourceKind() == ConfigSnapshot.SOURCE_EXCEL) {
+            String excelDir = System.getProperty("config.excel.dir");
+            return excelDir == null ? null : new File(excelDir, table.getSourceName());
+        }
+        File source = ConfigStore.resolveSource(filePath);
+        return source == null ? new File(filePath) : source;
+    }
+
     public boolean init(){
+        return reload();
+    }
+
+    /**
+     * 重新加载全部配置，成功后原子替换当前版本；失败时保留旧版本
+     * 加载期间读取仍使用旧版本，不会看到加载一半的表
+     */
+    public synchronized boolean reload() {
+        long start = System.currentTimeMillis();
+        if (configPaths == null) {
+            configPaths = scanConfigClasses(this.configFilePackage);
+            if (configPaths == null) {
+                return false;
+            }
+        }
+        ConfigSnapshot snapshot = openSnapshot();
+        long heapBefore = usedHeap();
+
+        // 1，各表并行加载，任一失败立即返回
+        ConfigStringPool stringPool = ConfigStringPool.create();
+        Map<Class<? extends GameConfig>, ConfigStore> storages = loadParallel(configPaths, snapshot, stringPool);
+        if (storages == null) {
+            return false;
+        }
+
+        // 2，按依赖顺序检查、组装，期间 ConfigManager 的读取指向新版本
+        ConfigVersion old = current.get();
+        ConfigVersion version = new ConfigVersion(old.getVersion() + 1, storages);
+        List<Class<? extends GameConfig>> order = sortByDependency(configPaths.keySet());
+        if (order == null) {
+            return false;
+        }
+        for (Class<? extends GameConfig> configCls : order) {
+            ConfigStore configStore = storages.get(configCls);
+            // 延迟表在首次访问加载后执行
+            if (configCls.isAnnotationPresent(LazyConfig.class)) {
+                continue;
+            }
+            if (configStore != null && !configStore.checkAndAssemble()) {
+                return false;
+            }
+        }
+
+        // 3，发布新版本
+        if (old != ConfigVersion.EMPTY) {
+            logDiff(old, version);
+        }
+        current.set(version);
+        System.out.println("config load finish, version: " + version.getVersion() + ", tables: " + storages.size()
+                + ", cost: " + (System.currentTimeMillis() - start) + "ms"
+                + ", heap used: " + heapBefore / 1024 / 1024 + "MB -> " + usedHeap() / 1024 / 1024 + "MB"
+                + (stringPool == null ? "" : ", " + stringPool.report()));
+        return true;
+    }
+
+    /**
+     * 当前堆使用量（含未回收对象，仅供前后对比参考）
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
 
+    /**
+     * 扫描包下的 @KVConfig/@DataConfig 配置类及其 path，类加载失败返回 null
+     */
+    static Map<Class<? extends GameConfig>, String> scanConfigClasses(String configFilePackage) {
+        Map<Class<? extends GameConfig>, String> configPaths = new LinkedHashMap<>();
         ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
         scanner.addIncludeFilter(new AnnotationTypeFilter(KVConfig.class));
         scanner.addIncludeFilter(new AnnotationTypeFilter(DataConfig.class));
-        Set<BeanDefinition> candidates = scanner.findCandidateComponents(this.configFilePackage);
+        Set<BeanDefinition> candidates = scanner.findCandidateComponents(configFilePackage);
         for (BeanDefinition candidate : candidates) {
-            System.out.println("load config: " + candidate.getBeanClassName());
             try {
                 Class<?> cls = Class.forName(candidate.getBeanClassName());
                 if(!GameConfig.class.isAssignableFrom(cls)){
@@ -53,46 +188,269 @@ public class ConfigManager {
                 if (Objects.nonNull(dataRes) && StringUtil.emptyString(dataRes.path())) {
                     continue;
                 }
-                ConfigStore configStore = new ConfigStore(configCls);
-                if(configStore.loadData(this.configRootPath)) {
-                    storages.put(configCls, configStore);
-                }
-
+                configPaths.put(configCls, Objects.nonNull(kvRes) ? kvRes.path() : dataRes.path());
             } catch (ClassNotFoundException e) {
                 e.printStackTrace();
-                return false;
+                return null;
             }
+        }
+        return Collections.unmodifiableMap(configPaths);
+    }
 
+    private void logDiff(ConfigVersion old, ConfigVersion version) {
+        for (Map.Entry<Class<? extends GameConfig>, ConfigStore> entry : version.getStorages().entrySet()) {
+            ConfigStore before = old.getStore(entry.getKey());
+            if (before == null) {
+                System.out.println("config reload, new table: " + entry.getKey().getSimpleName());
+                continue;
+            }
+            String diff;
+            try {
+                diff = entry.getValue().diff(before);
+            } catch (IllegalStateException e) {
+                System.err.println("config reload, diff skipped: " + entry.getKey().getSimpleName() + ", " + e.getMessage());
+                continue;
+            }
+            if (diff != null) {
+                System.out.println("config reload, table: " + entry.getKey().getSimpleName() + ", " + diff);
+            }
         }
-        return true;
     }
 
+    /**
+     * 延迟重载（-Dconfig.reload.delay，默认 1000ms），期间的多次触发合并为一次
+     */
+    public synchronized void reloadAsync() {
+        if (pendingReload != null) {
+            pendingReload.cancel(false);
+        }
+        pendingReload = reloadExecutor.schedule(() -> {
+            try {
+                if (!reload()) {
+                    System.err.println("config reload failed, keep version: " + current.get().getVersion());
+                }
+            } catch (Throwable t) {
+                System.err.println("config reload error, keep version: " + current.get().getVersion() + ", " + t);
+            }
+        }, Long.getLong("config.reload.delay", 1000L), TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * 监听配置目录（含子目录）文件变化，变化后触发重载
+     */
+    public synchronized void startFileWatch() {
+        if (watchThread != null) {
+            return;
+        }
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            try (Stream<Path> dirs = Files.walk(Paths.get(this.configRootPath))) {
+                for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                    dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("config file watch failed: " + this.configRootPath, e);
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                for (; ; ) {
+                    WatchKey key = watchService.take();
+                    key.pollEvents();
+                    key.reset();
+                    reloadAsync();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // 停止监听
+            }
+        }, "config-watch");
+        thread.setDaemon(true);
+        thread.start();
+        watchThread = thread;
+    }
 
-    public <T extends GameConfig> T getKVConfig(Class<T> cfgClass) {
-        ConfigStore storage = storages.get(cfgClass);
-        if (storage != null) {
-            return storage.getConfigByIndex(0);
+    /**
+     * 监听 Nacos 配置（内容可为版本号等任意值），变更后触发重载
+     */
+    public void listenNacos(String dataId, String group) {
+        listenConfig(new NacosServiceDiscovery(NacosClientUtil.getAlreadyInstance()), dataId, group);
+    }
+
+    /**
+     * 监听配置中心（Nacos 或 LocalServiceDiscovery）的配置，变更后触发重载
+     */
+    public void listenConfig(ServiceDiscovery discovery, String dataId, String group) {
+        try {
+            discovery.addConfigListener(dataId, group, configInfo -> {
+                System.out.println("配置重载通知: " + dataId + ", " + configInfo);
+                reloadAsync();
+            });
+        } catch (RuntimeException e) {
+            throw new RuntimeException("监听配置重载失败: " + dataId, e);
         }
-        return null;
     }
 
+    public synchronized void shutdown() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        reloadExecutor.shutdownNow();
+    }
 
-    @SuppressWarnings("unchecked")
-    public <T extends GameConfig> List<T> getConfigDataList(Class<T> cfgClass) {
-        ConfigStore storage = storages.get(cfgClass);
-        if (storage != null) {
-            return storage.getConfigList();
+    /**
+     * 当前配置版本，同一次处理中读取多张表时使用，保证数据来自同一版本
+     * 在 dataCheck/assembleData 中调用时返回正在构建的版本
+     */
+    public ConfigVersion current() {
+        ConfigVersion assembling = ConfigVersion.assembling();
+        return assembling != null ? assembling : current.get();
+    }
+
+    /**
+     * 固定大小线程池并行加载（-Dconfig.load.threads，默认 CPU 核数），第一个失败的表出现时取消其余任务
+     */
+    private Map<Class<? extends GameConfig>, ConfigStore> loadParallel(Map<Class<? extends GameConfig>, String> configPaths,
+                                                                       ConfigSnapshot snapshot, ConfigStringPool stringPool) {
+        Map<Class<? extends GameConfig>, ConfigStore> storages = new HashMap<>(configPaths.size() * 2);
+        if (configPaths.isEmpty()) {
+            return storages;
+        }
+        int threads = Math.min(configPaths.size(),
+                Integer.getInteger("config.load.threads", Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "config-load-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<ConfigStore> completionService = new ExecutorCompletionService<>(executor);
+            int submitted = 0;
+            for (Map.Entry<Class<? extends GameConfig>, String> entry : configPaths.entrySet()) {
+                if (entry.getKey().isAnnotationPresent(LazyConfig.class)) {
+                    // 延迟表只登记，首次访问时加载
+                    ConfigStore configStore = new ConfigStore(entry.getKey());
+                    configStore.loadLazy(this.configRootPath + entry.getValue(), () -> loadStore(configStore, snapshot, entry.getValue()));
+                    storages.put(entry.getKey(), configStore);
+                    continue;
+                }
+                submitted++;
+                completionService.submit(() -> {
+                    long begin = System.nanoTime();
+                    ConfigStore configStore = new ConfigStore(entry.getKey());
+                    configStore.setStringPool(stringPool);
+                    if (!loadStore(configStore, snapshot, entry.getValue())) {
+                        throw new IllegalStateException("config load failed: " + entry.getKey().getName() + ", path: " + entry.getValue());
+                    }
+                    // 有检查、组装逻辑的表在此解码，不占用后续串行阶段
+                    if (configStore.hasDataHooks()) {
+                        configStore.ensureLoaded();
+                    }
+                    configStore.setStringPool(null);
+                    System.out.println("load config: " + entry.getKey().getName() + ", path: " + entry.getValue()
+                            + ", cost: " + (System.nanoTime() - begin) / 1_000_000 + "ms");
+                    return configStore;
+                });
+            }
+            for (int i = 0; i < submitted; i++) {
+                ConfigStore configStore = completionService.take().get();
+                storages.put(configStore.getConfigClass(), configStore);
+            }
+            return storages;
+        } catch (ExecutionException e) {
+            System.err.println(e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            executor.shutdownNow();
         }
-        return null;
     }
 
-    public <T extends GameConfig> T getConfigDataByKey(Class<T> cfgClass,Object key) {
-        ConfigStore storage = storages.get(cfgClass);
-        if (storage != null) {
-            return storage.getConfigByKey(key);
+    /**
+     * 按 dependsOn 拓扑排序，被依赖的表在前；存在循环依赖返回 null
+     */
+    private List<Class<? extends GameConfig>> sortByDependency(Collection<Class<? extends GameConfig>> configClasses) {
+        Map<Class<? extends GameConfig>, Integer> inDegree = new LinkedHashMap<>();
+        Map<Class<? extends GameConfig>, List<Class<? extends GameConfig>>> dependents = new HashMap<>();
+        for (Class<? extends GameConfig> configCls : configClasses) {
+            inDegree.putIfAbsent(configCls, 0);
+            for (Class<? extends GameConfig> dependency : dependsOn(configCls)) {
+                if (!configClasses.contains(dependency)) {
+                    System.err.println("config dependency not loaded: " + configCls.getName() + " -> " + dependency.getName());
+                    continue;
+                }
+                inDegree.merge(configCls, 1, Integer::sum);
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(configCls);
+            }
         }
-        return null;
+        List<Class<? extends GameConfig>> order = new ArrayList<>(inDegree.size());
+        Deque<Class<? extends GameConfig>> ready = new ArrayDeque<>();
+        inDegree.forEach((configCls, degree) -> {
+            if (degree == 0) {
+                ready.add(configCls);
+            }
+        });
+        while (!ready.isEmpty()) {
+            Class<? extends GameConfig> configCls = ready.poll();
+            order.add(configCls);
+            for (Class<? extends GameConfig> dependent : dependents.getOrDefault(configCls, Collections.emptyList())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (order.size() != inDegree.size()) {
+            inDegree.forEach((configCls, degree) -> {
+                if (degree > 0) {
+                    System.err.println("config dependency cycle: " + configCls.getName());
+                }
+            });
+            return null;
+        }
+        return order;
+    }
+
+    private static Class<? extends GameConfig>[] dependsOn(Class<? extends GameConfig> configCls) {
+        KVConfig kvRes = configCls.getAnnotation(KVConfig.class);
+        return kvRes != null ? kvRes.dependsOn() : configCls.getAnnotation(DataConfig.class).dependsOn();
+    }
+
+
+
+    public <T extends GameConfig> T getKVConfig(Class<T> cfgClass) {
+        return current().getKVConfig(cfgClass);
+    }
+
+
+    public <T extends GameConfig> List<T> getConfigDataList(Class<T> cfgClass) {
+        return current().getConfigDataList(cfgClass);
+    }
+
+    public <T extends GameConfig> T getConfigDataByKey(Class<T> cfgClass,Object key) {
+        return current().getConfigDataByKey(cfgClass, key);
+    }
+
+    public <T extends GameConfig> T getConfigDataByIntKey(Class<T> cfgClass, int key) {
+        return current().getConfigDataByIntKey(cfgClass, key);
+    }
+
+    /**
+     * 各表访问次数报告（-Dconfig.stats=true 时含访问最多的 key）
+     */
+    public String accessReport(int topKeys) {
+        return ConfigAccessStats.report(topKeys);
+    }
+
+    /**
+     * 配置仓库，用于索引查询（getConfigGroup/forEachInRange 等）
+     */
+    public ConfigStore getConfigStore(Class<? extends GameConfig> cfgClass) {
+        return current().getStore(cfgClass);
     }
 
     /**
@@ -103,6 +461,11 @@ public class ConfigManager {
     @Retention(RetentionPolicy.RUNTIME)
     public @interface KVConfig {
         String path() default "";
+
+        /**
+         * 依赖的配置表，检查、组装时先处理
+         */
+        Class<? extends GameConfig>[] dependsOn() default {};
     }
 
     /**
@@ -113,6 +476,11 @@ public class ConfigManager {
     @Retention(RetentionPolicy.RUNTIME)
     public @interface DataConfig {
         String path() default "";
+
+        /**
+         * 依赖的配置表，检查、组装时先处理
+         */
+        Class<? extends GameConfig>[] dependsOn() default {};
     }
 
     /**
@@ -125,4 +493,68 @@ public class ConfigManager {
     @Target({ ElementType.FIELD, ElementType.METHOD })
     public @interface Id {
     }
+
+    /**
+     * 延迟加载：启动时不读取、不解析，首次访问时加载（之后执行 dataCheck/assembleData）
+     * 适合只在少数功能中使用的冷表；被其他表 dependsOn 时，依赖方的检查、组装会触发加载
+     * 加载或检查、组装失败时访问抛出 IllegalStateException（不提供空表或未通过检查的数据），重载后重新加载
+     */
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface LazyConfig {
+    }
+
+    /**
+     * 列式存储（仅用于 @DataConfig 数值表），数值列存为基本类型数组，通过 ConfigStore.getColumnar 访问
+     * 不保留行对象：getConfigList 等返回空，不执行 dataCheck/assembleData
+     */
+    @Documented
+    @Target(ElementType.TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface ColumnarConfig {
+        /**
+         * 数值列放在堆外（DirectByteBuffer）
+         */
+        boolean offHeap() default false;
+    }
+
+    /**
+     * 符号字段：int 字段从 JSON 字符串读取，值为 ConfigSymbols 分配的 id（如类型名、枚举名）
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Symbol {
+    }
+
+    /**
+     * int 唯一索引，ConfigStore.getConfigByField 查询
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface Index {
+    }
+
+    /**
+     * int 分组索引，value 相同的字段（最多 2 个，按 order 排序）组合为一个索引，ConfigStore.getConfigGroup 查询
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface GroupIndex {
+        String value();
+
+        int order() default 0;
+    }
+
+    /**
+     * int 范围索引，ConfigStore.forEachInRange/getConfigFloor 查询
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface RangeIndex {
+    }
 }
@@ -0,0 +1,309 @@
+package com.slg.module.config;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 配置二进制快照（只读，内存映射）
+ * 由 ConfigSnapshotCompiler 在构建时把配置目录编译生成，启动时映射文件，各表在首次访问时才解码
+ *
+ * 文件格式（大端）：
+ * int MAGIC, int VERSION
+ * 各表行数据：行 = varint 单元格数 + 单元格*
+ *            单元格 = varint 列序号 + byte 类型 + 值（INT 4字节，LONG/DOUBLE 8字节，STRING varint长度+UTF-8）
+ * 表目录：int 表数量 + (UTF 路径, byte 源类型, UTF 源文件, long 源文件CRC32, long 源文件长度, int 行数, long 数据偏移, long 数据长度, int 列数, UTF 列名*)*
+ *        源类型：SOURCE_JSON 源文件为配置目录下的 path；SOURCE_EXCEL 源文件为 Excel 目录下的 xlsx（相对路径），版本 1 的快照没有这两项，按 JSON
+ * 文件尾：long 目录偏移, int MAGIC
+ */
+public class ConfigSnapshot {
+    public static final int MAGIC = 0x53434647; // "SCFG"
+    public static final int VERSION = 2;
+    static final int VERSION_JSON_ONLY = 1;
+    public static final byte SOURCE_JSON = 0;
+    public static final byte SOURCE_EXCEL = 1;
+    public static final String DEFAULT_FILE_NAME = "config.snapshot";
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_FALSE = 1;
+    static final byte TAG_TRUE = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_DOUBLE = 5;
+    static final byte TAG_STRING = 6;
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final Map<String, Table> tables;
+
+    private ConfigSnapshot(File file) throws IOException {
+        this.file = file;
+        // 映射建立后与 channel 无关，关闭 channel 不影响读取
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 20 || size > Integer.MAX_VALUE) {
+                throw new IOException("invalid config snapshot size: " + file + ", size: " + size);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        try {
+            this.tables = readDirectory();
+        } catch (RuntimeException e) {
+            throw new IOException("invalid config snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * 打开快照，文件不存在返回 null
+     */
+    public static ConfigSnapshot open(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        return new ConfigSnapshot(file);
+    }
+
+    private Map<String, Table> readDirectory() throws IOException {
+        ByteBuffer buf = buffer.duplicate();
+        if (buf.getInt(0) != MAGIC || buf.getInt(buf.limit() - 4) != MAGIC) {
+            throw new IOException("bad magic");
+        }
+        int version = buf.getInt(4);
+        if (version != VERSION && version != VERSION_JSON_ONLY) {
+            throw new IOException("unsupported snapshot version: " + version);
+        }
+        long directoryOffset = buf.getLong(buf.limit() - 12);
+        buf.position((int) directoryOffset);
+        int count = buf.getInt();
+        Map<String, Table> result = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String path = readUTF(buf);
+            byte sourceKind = SOURCE_JSON;
+            String sourceName = path;
+            if (version != VERSION_JSON_ONLY) {
+                sourceKind = buf.get();
+                sourceName = readUTF(buf);
+            }
+            long sourceCrc = buf.getLong();
+            long sourceLength = buf.getLong();
+            int rowCount = buf.getInt();
+            long dataOffset = buf.getLong();
+            long dataLength = buf.getLong();
+            String[] columns = new String[buf.getInt()];
+            for (int c = 0; c < columns.length; c++) {
+                columns[c] = readUTF(buf);
+            }
+            ByteBuffer data = buffer.slice((int) dataOffset, (int) dataLength);
+            result.put(path, new Table(path, sourceKind, sourceName, sourceCrc, sourceLength, rowCount, columns, data));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    public Table table(String path) {
+        return tables.get(normalizePath(path));
+    }
+
+    public Map<String, Table> tables() {
+        return tables;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 校验快照中的表与源文件是否一致
+     * 源文件不存在时（只发布快照）视为一致
+     */
+    public static boolean matchesSource(Table table, File source) throws IOException {
+        if (!source.isFile()) {
+            return true;
+        }
+        if (source.length() != table.getSourceLength()) {
+            return false;
+        }
+        return crc32(source) == table.getSourceCrc();
+    }
+
+    /**
+     * 用写好的临时文件原子替换快照（同目录 rename），替换过程中快照文件始终存在，启动中的节点不会因找不到快照回退到 JSON
+     * 失败时删除临时文件
+     */
+    static void replace(File temp, File output) throws IOException {
+        try {
+            Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temp.delete();
+            throw new IOException("cannot replace snapshot: " + temp + " -> " + output, e);
+        }
+    }
+
+    public static long crc32(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[1 << 16];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(bytes)) > 0) {
+                crc.update(bytes, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    static String normalizePath(String path) {
+        return path.replace('\\', '/');
+    }
+
+    private static String readUTF(ByteBuffer buf) {
+        int length = buf.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        // writeUTF 为 modified UTF-8，列名/路径中不含 \0 和补充字符时与 UTF-8 一致
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 单元格访问器，按单元格类型回调
+     */
+    public interface RowVisitor {
+        void beginRow(int rowIndex) throws Exception;
+
+        void nullCell(String column) throws Exception;
+
+        void booleanCell(String column, boolean value) throws Exception;
+
+        void intCell(String column, int value) throws Exception;
+
+        void longCell(String column, long value) throws Exception;
+
+        void doubleCell(String column, double value) throws Exception;
+
+        void stringCell(String column, String value) throws Exception;
+
+        void endRow(int rowIndex) throws Exception;
+    }
+
+    /**
+     * 快照中的一张表
+     */
+    public static final class Table {
+        private final String path;
+        private final byte sourceKind;
+        private final String sourceName;
+        private final long sourceCrc;
+        private final long sourceLength;
+        private final int rowCount;
+        private final String[] columns;
+        private final ByteBuffer data;
+
+        Table(String path, byte sourceKind, String sourceName, long sourceCrc, long sourceLength, int rowCount, String[] columns, ByteBuffer data) {
+            this.path = path;
+            this.sourceKind = sourceKind;
+            this.sourceName = sourceName;
+            this.sourceCrc = sourceCrc;
+            this.sourceLength = sourceLength;
+            this.rowCount = rowCount;
+            this.columns = columns;
+            this.data = data;
+        }
+
+        /**
+         * 顺序解码所有行，可多次调用、多线程调用
+         */
+        public void accept(RowVisitor visitor) throws Exception {
+            ByteBuffer buf = data.duplicate();
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                visitor.beginRow(rowIndex);
+                int cells = readVarInt(buf);
+                for (int i = 0; i < cells; i++) {
+                    String column = columns[readVarInt(buf)];
+                    byte tag = buf.get();
+                    switch (tag) {
+                        case TAG_NULL -> visitor.nullCell(column);
+                        case TAG_FALSE -> visitor.booleanCell(column, false);
+                        case TAG_TRUE -> visitor.booleanCell(column, true);
+                        case TAG_INT -> visitor.intCell(column, buf.getInt());
+                        case TAG_LONG -> visitor.longCell(column, buf.getLong());
+                        case TAG_DOUBLE -> visitor.doubleCell(column, Double.longBitsToDouble(buf.getLong()));
+                        case TAG_STRING -> visitor.stringCell(column, readString(buf));
+                        default -> throw new IllegalStateException("bad cell tag: " + tag + ", table: " + path);
+                    }
+                }
+                visitor.endRow(rowIndex);
+            }
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * SOURCE_JSON 或 SOURCE_EXCEL
+         */
+        public byte getSourceKind() {
+            return sourceKind;
+        }
+
+        /**
+         * 源文件相对路径（JSON 相对配置目录，Excel 相对 Excel 目录）
+         */
+        public String getSourceName() {
+            return sourceName;
+        }
+
+        public long getSourceCrc() {
+            return sourceCrc;
+        }
+
+        public long getSourceLength() {
+            return sourceLength;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public String[] getColumns() {
+            return columns.clone();
+        }
+
+        public int getDataLength() {
+            return data.capacity();
+        }
+
+        private static String readString(ByteBuffer buf) {
+            int length = readVarInt(buf);
+            String value;
+            if (buf.hasArray()) {
+                value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+                buf.position(buf.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                buf.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return value;
+        }
+
+        private static int readVarInt(ByteBuffer buf) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.slg.module.config;
+
+import com.alibaba.fastjson.JSONObject;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 配置快照编译（构建时执行）
+ * 把配置目录下的 JSON 配置（每行一个对象，或整个文件为一个 KV 对象）编译为 ConfigSnapshot 二进制文件
+ * 用法：java com.slg.module.config.ConfigSnapshotCompiler [配置目录] [输出文件]
+ */
+public class ConfigSnapshotCompiler {
+
+    public static void main(String[] args) throws IOException {
+        File configDir = new File(args.length > 0 ? args[0] : System.getProperty("user.dir") + File.separator + "config");
+        File output = new File(args.length > 1 ? args[1] : configDir.getPath() + File.separator + ConfigSnapshot.DEFAULT_FILE_NAME);
+        long start = System.currentTimeMillis();
+        int tables = compile(configDir, output);
+        System.out.println("config snapshot compiled: " + output + ", tables: " + tables
+                + ", bytes: " + output.length() + ", cost: " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * @return 写入的表数量
+     */
+    public static int compile(File configDir, File output) throws IOException {
+        if (!configDir.isDirectory()) {
+            throw new IOException("config dir not exist: " + configDir);
+        }
+        List<File> files = new ArrayList<>();
+        collectFiles(configDir, files);
+        File temp = new File(output.getPath() + ".tmp");
+        int tableCount;
+        try (ConfigSnapshotWriter writer = new ConfigSnapshotWriter(temp)) {
+            for (File file : files) {
+                if (file.getCanonicalFile().equals(output.getCanonicalFile()) || file.getCanonicalFile().equals(temp.getCanonicalFile())) {
+                    continue;
+                }
+                String path = ConfigSnapshot.normalizePath(configDir.toPath().relativize(file.toPath()).toString());
+                // 压缩文件按原文件名登记，与配置注解中的 path 对应
+                if (path.endsWith(ConfigStore.GZIP_SUFFIX)) {
+                    path = path.substring(0, path.length() - ConfigStore.GZIP_SUFFIX.length());
+                }
+                List<JSONObject> rows = parseRows(file);
+                if (rows == null) {
+                    System.err.println("skip non-json config file: " + path);
+                    continue;
+                }
+                writer.beginTable(path, ConfigSnapshot.crc32(file), file.length());
+                for (JSONObject row : rows) {
+                    writer.beginRow();
+                    for (Map.Entry<String, Object> entry : row.entrySet()) {
+                        writer.valueCell(entry.getKey(), entry.getValue());
+                    }
+                    writer.endRow();
+                }
+                writer.endTable();
+            }
+            tableCount = writer.tableCount();
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+        // 写完再替换，避免运行中的进程映射到半个文件
+        ConfigSnapshot.replace(temp, output);
+        return tableCount;
+    }
+
+    private static void collectFiles(File dir, List<File> files) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.getName().startsWith(".")) {
+                continue;
+            }
+            if (child.isDirectory()) {
+                collectFiles(child, files);
+            } else {
+                files.add(child);
+            }
+        }
+    }
+
+    /**
+     * 先按 JSON lines 解析（数组配置），失败再按整个文件一个对象解析（KV 配置）
+     * 都失败返回 null
+     */
+    private static List<JSONObject> parseRows(File file) throws IOException {
+        List<String> content;
+        try (InputStream in = ConfigStore.openSource(file)) {
+            content = IOUtils.readLines(in, "UTF-8");
+        }
+        List<JSONObject> rows = new ArrayList<>(content.size());
+        try {
+            for (String line : content) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rows.add(JSONObject.parseObject(line));
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            // 多行格式化的 KV 文件，与 ConfigStore.loadKVData 一样拼接后整体解析
+        }
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (String line : content) {
+                sb.append(line);
+            }
+            rows.clear();
+            rows.add(JSONObject.parseObject(sb.toString()));
+            return rows;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
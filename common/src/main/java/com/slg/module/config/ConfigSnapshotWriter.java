@@ -0,0 +1,256 @@
+package com.slg.module.config;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 配置快照写入（流式，行数据直接写文件，内存只保留当前行和表目录）
+ * 用法：
+ * beginTable -> (beginRow -> xxxCell... -> endRow)* -> endTable，所有表写完后 close
+ * 文件格式见 ConfigSnapshot
+ */
+public class ConfigSnapshotWriter implements Closeable {
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final List<TableEntry> tables = new ArrayList<>();
+
+    // 当前表
+    private TableEntry table;
+    private Map<String, Integer> columnIndex;
+    // 当前行
+    private final RowBuffer row = new RowBuffer();
+    private int rowCells;
+
+    public ConfigSnapshotWriter(File file) throws IOException {
+        this.counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        this.out = new DataOutputStream(counter);
+        out.writeInt(ConfigSnapshot.MAGIC);
+        out.writeInt(ConfigSnapshot.VERSION);
+    }
+
+    /**
+     * 从配置目录下同名 JSON 文件编译的表
+     *
+     * @param path         配置路径（与 @KVConfig/@DataConfig 的 path 一致）
+     * @param sourceCrc    源文件 CRC32
+     * @param sourceLength 源文件长度
+     */
+    public void beginTable(String path, long sourceCrc, long sourceLength) {
+        beginTable(path, ConfigSnapshot.SOURCE_JSON, path, sourceCrc, sourceLength);
+    }
+
+    /**
+     * @param sourceKind ConfigSnapshot.SOURCE_JSON / SOURCE_EXCEL，运行时据此找到校验用的源文件
+     * @param sourceName 源文件相对路径
+     */
+    public void beginTable(String path, byte sourceKind, String sourceName, long sourceCrc, long sourceLength) {
+        if (table != null) {
+            throw new IllegalStateException("table not ended: " + table.path);
+        }
+        table = new TableEntry(path, sourceKind, sourceName, sourceCrc, sourceLength, counter.count);
+        columnIndex = new HashMap<>();
+    }
+
+    public void beginRow() {
+        row.reset();
+        rowCells = 0;
+    }
+
+    public void nullCell(String column) {
+        cellHeader(column, ConfigSnapshot.TAG_NULL);
+    }
+
+    public void booleanCell(String column, boolean value) {
+        cellHeader(column, value ? ConfigSnapshot.TAG_TRUE : ConfigSnapshot.TAG_FALSE);
+    }
+
+    public void intCell(String column, int value) {
+        cellHeader(column, ConfigSnapshot.TAG_INT);
+        row.writeInt(value);
+    }
+
+    public void longCell(String column, long value) {
+        cellHeader(column, ConfigSnapshot.TAG_LONG);
+        row.writeLong(value);
+    }
+
+    public void doubleCell(String column, double value) {
+        cellHeader(column, ConfigSnapshot.TAG_DOUBLE);
+        row.writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    public void stringCell(String column, String value) {
+        if (value == null) {
+            nullCell(column);
+            return;
+        }
+        cellHeader(column, ConfigSnapshot.TAG_STRING);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        row.writeVarInt(bytes.length);
+        row.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 按 JSON 值类型写入单元格（fastjson 解析结果）
+     */
+    public void valueCell(String column, Object value) {
+        if (value == null) {
+            nullCell(column);
+        } else if (value instanceof Boolean) {
+            booleanCell(column, (Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            intCell(column, ((Number) value).intValue());
+        } else if (value instanceof Long) {
+            longCell(column, (Long) value);
+        } else if (value instanceof Float || value instanceof Double) {
+            doubleCell(column, ((Number) value).doubleValue());
+        } else if (value instanceof java.math.BigDecimal) {
+            // JSON 小数保留原文（1.50 不变为 1.5，高精度不丢位），由 binder 按字段类型转换，与 JSON 加载结果一致
+            stringCell(column, value.toString());
+        } else {
+            // 字符串、超长整数、嵌套对象/数组按字符串保存（与 JSONObject.getString 一致）
+            stringCell(column, value instanceof String ? (String) value : com.alibaba.fastjson.JSON.toJSONString(value));
+        }
+    }
+
+    public void endRow() throws IOException {
+        writeVarInt(out, rowCells);
+        row.writeTo(out);
+        table.rowCount++;
+    }
+
+    public void endTable() {
+        table.dataLength = counter.count - table.dataOffset;
+        table.columns = new String[columnIndex.size()];
+        for (Map.Entry<String, Integer> entry : columnIndex.entrySet()) {
+            table.columns[entry.getValue()] = entry.getKey();
+        }
+        tables.add(table);
+        table = null;
+        columnIndex = null;
+    }
+
+    /**
+     * 写入表目录和文件尾
+     */
+    @Override
+    public void close() throws IOException {
+        if (table != null) {
+            throw new IllegalStateException("table not ended: " + table.path);
+        }
+        long directoryOffset = counter.count;
+        out.writeInt(tables.size());
+        for (TableEntry entry : tables) {
+            out.writeUTF(entry.path);
+            out.writeByte(entry.sourceKind);
+            out.writeUTF(entry.sourceName);
+            out.writeLong(entry.sourceCrc);
+            out.writeLong(entry.sourceLength);
+            out.writeInt(entry.rowCount);
+            out.writeLong(entry.dataOffset);
+            out.writeLong(entry.dataLength);
+            out.writeInt(entry.columns.length);
+            for (String column : entry.columns) {
+                out.writeUTF(column);
+            }
+        }
+        out.writeLong(directoryOffset);
+        out.writeInt(ConfigSnapshot.MAGIC);
+        out.close();
+    }
+
+    public int tableCount() {
+        return tables.size();
+    }
+
+    private void cellHeader(String column, byte tag) {
+        Integer index = columnIndex.get(column);
+        if (index == null) {
+            index = columnIndex.size();
+            columnIndex.put(column, index);
+        }
+        row.writeVarInt(index);
+        row.write(tag);
+        rowCells++;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class TableEntry {
+        final String path;
+        final byte sourceKind;
+        final String sourceName;
+        final long sourceCrc;
+        final long sourceLength;
+        final long dataOffset;
+        long dataLength;
+        int rowCount;
+        String[] columns;
+
+        TableEntry(String path, byte sourceKind, String sourceName, long sourceCrc, long sourceLength, long dataOffset) {
+            this.path = path;
+            this.sourceKind = sourceKind;
+            this.sourceName = sourceName;
+            this.sourceCrc = sourceCrc;
+            this.sourceLength = sourceLength;
+            this.dataOffset = dataOffset;
+        }
+    }
+
+    // 可复用的行缓冲
+    private static final class RowBuffer extends ByteArrayOutputStream {
+        RowBuffer() {
+            super(256);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -1,28 +1,314 @@
 package com.slg.module.config;
 
-import com.alibaba.fastjson.JSONObject;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONReader;
 import com.slg.module.util.StringUtil;
-import org.apache.commons.io.IOUtils;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.*;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.text.SimpleDateFormat;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 public class ConfigStore {
 
+    public static final String GZIP_SUFFIX = ".gz";
+
     private String filePath;
 
     private Class<? extends GameConfig> configClass;
 
-    List<GameConfig> configList = new ArrayList<>();
+    // 加载完成后整体替换为不可变集合，读取无需加锁
+    volatile List<GameConfig> configList = Collections.emptyList();
+
+    volatile Map<Object,GameConfig> configMap = Collections.emptyMap();
+
+    // int 主键和 @Index/@GroupIndex/@RangeIndex 索引
+    private volatile ConfigIndexes indexes = ConfigIndexes.EMPTY;
+
+    // @ColumnarConfig 表的列存储，此时不保留行对象
+    private volatile ColumnarTable columnar;
+
+    // 源文件 CRC32，重载时用于跳过未变化的表
+    private long sourceCrc = -1;
+
+    // 延迟加载任务（快照解码、@LazyConfig 加载），首次访问时执行，完成后置空；返回 false 表示加载失败
+    private volatile BooleanSupplier pendingLoad;
 
-    Map<Object,GameConfig> configMap = new HashMap<>();
+    // 延迟加载或首次访问后的检查、组装失败，之后的访问直接抛出，重载生成新版本后恢复
+    private RuntimeException loadFailure;
+
+    // @LazyConfig 表在首次访问加载后执行检查、组装
+    private boolean hooksAfterLoad;
+
+    private final ConfigAccessStats stats;
+
+    // 所属版本，检查、组装时依赖的表从该版本读取
+    private volatile ConfigVersion version;
+
+    // 本次加载的字符串池，加载结束后置空
+    private ConfigStringPool stringPool;
 
     public ConfigStore(Class<? extends GameConfig> configClass) {
         this.configClass = configClass;
+        this.stats = ConfigAccessStats.of(configClass);
+    }
+
+    /**
+     * 从快照加载：先校验表数据（结构、字段类型、主键重复），通过后只记录表位置，首次访问时才解码
+     * 校验失败时回退到源文件，源文件也不可用（只部署快照）时返回 false
+     */
+    public boolean loadSnapshot(String filePath, ConfigSnapshot.Table table) {
+        this.filePath = filePath;
+        try {
+            validateSnapshot(table);
+        } catch (Exception e) {
+            System.err.println("config snapshot invalid, fallback to source: " + filePath + ", " + e);
+            return loadSource(filePath);
+        }
+        this.sourceCrc = table.getSourceCrc();
+        this.pendingLoad = () -> {
+            try {
+                decodeSnapshot(table);
+                return true;
+            } catch (Exception e) {
+                // 已通过校验，不回退到源文件，避免不同节点数据来源不一致
+                System.err.println("config snapshot decode failed: " + this.filePath + ", " + e);
+                return false;
+            }
+        };
+        return true;
+    }
+
+    private boolean loadSource(String filePath) {
+        return configClass.isAnnotationPresent(ConfigManager.KVConfig.class) ? loadKVData(filePath) : loadArrData(filePath);
+    }
+
+    /**
+     * 按解码相同的路径把每行写入同一个临时对象，不保留行对象；检查单元格能否写入字段以及主键是否重复
+     */
+    private void validateSnapshot(ConfigSnapshot.Table table) throws Exception {
+        boolean kv = configClass.isAnnotationPresent(ConfigManager.KVConfig.class);
+        ConfigBinder binder = ConfigBinder.of(configClass);
+        ConfigBinder.FieldBinder idField = binder.getIdField();
+        Object scratch = binder.newInstance();
+        // 没有主键单元格的行，主键为新对象的默认值
+        Object defaultId = binder.idOf(scratch);
+        Set<Object> ids = new HashSet<>(kv ? 1 : table.getRowCount() * 4 / 3 + 1);
+        table.accept(new ConfigSnapshot.RowVisitor() {
+            private boolean hasId;
+
+            @Override
+            public void beginRow(int rowIndex) {
+                hasId = false;
+            }
+
+            private ConfigBinder.FieldBinder field(String column) {
+                ConfigBinder.FieldBinder field = binder.field(column);
+                if (field == idField) {
+                    hasId = true;
+                }
+                return field;
+            }
+
+            @Override
+            public void nullCell(String column) throws Exception {
+                field(column).setString(scratch, null);
+            }
+
+            @Override
+            public void booleanCell(String column, boolean value) throws Exception {
+                field(column).setBoolean(scratch, value);
+            }
+
+            @Override
+            public void intCell(String column, int value) throws Exception {
+                field(column).setInt(scratch, value);
+            }
+
+            @Override
+            public void longCell(String column, long value) throws Exception {
+                field(column).setLong(scratch, value);
+            }
+
+            @Override
+            public void doubleCell(String column, double value) throws Exception {
+                field(column).setDouble(scratch, value);
+            }
+
+            @Override
+            public void stringCell(String column, String value) throws Exception {
+                field(column).setString(scratch, value);
+            }
+
+            @Override
+            public void endRow(int rowIndex) throws Exception {
+                if (kv) {
+                    return;
+                }
+                Object dataKey = hasId ? binder.idOf(scratch) : defaultId;
+                if (dataKey != null && !ids.add(dataKey)) {
+                    throw new Exception("config key duplicate: " + filePath + ", key: " + dataKey);
+                }
+            }
+        });
+    }
+
+    /**
+     * @LazyConfig：加载（含读取、解析）推迟到首次访问，之后执行检查、组装
+     */
+    boolean loadLazy(String filePath, BooleanSupplier load) {
+        this.filePath = filePath;
+        this.hooksAfterLoad = hasDataHooks();
+        this.pendingLoad = load;
+        return true;
+    }
+
+    boolean isLoadPending() {
+        return pendingLoad != null;
+    }
+
+    /**
+     * 执行延迟加载；加载失败或检查、组装未通过时清空数据并抛出 IllegalStateException，不提供未通过检查的数据
+     */
+    void ensureLoaded() {
+        if (pendingLoad == null) {
+            return;
+        }
+        synchronized (this) {
+            if (loadFailure != null) {
+                throw loadFailure;
+            }
+            // 延迟执行的加载不再共享启动时的字符串池，使用本表自己的池
+            ConfigStringPool pool = stringPool == null ? ConfigStringPool.create() : stringPool;
+            stringPool = pool;
+            BooleanSupplier load;
+            try {
+                // 加载任务可能登记新的任务（延迟加载命中快照后再解码），执行到没有为止
+                while ((load = pendingLoad) != null) {
+                    long start = System.nanoTime();
+                    if (!load.getAsBoolean()) {
+                        throw new IllegalStateException("config load failed: " + filePath);
+                    }
+                    if (pendingLoad == load) {
+                        if (hooksAfterLoad) {
+                            hooksAfterLoad = false;
+                            if (!runHooks()) {
+                                throw new IllegalStateException("config check/assemble failed: " + filePath);
+                            }
+                        }
+                        pendingLoad = null;
+                        System.out.println("config loaded on first access: " + configClass.getSimpleName()
+                                + ", cost: " + (System.nanoTime() - start) / 1_000_000 + "ms"
+                                + (pool == null ? "" : ", " + pool.report()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                loadFailure = e instanceof IllegalStateException ? e : new IllegalStateException("config load failed: " + filePath, e);
+                this.configList = Collections.emptyList();
+                this.configMap = Collections.emptyMap();
+                this.indexes = ConfigIndexes.EMPTY;
+                this.columnar = null;
+                System.err.println("config load on first access failed, table unavailable until reload: "
+                        + configClass.getSimpleName() + ", " + e);
+                throw loadFailure;
+            } finally {
+                stringPool = null;
+            }
+        }
+    }
+
+    private void decodeSnapshot(ConfigSnapshot.Table table) throws Exception {
+        boolean kv = configClass.isAnnotationPresent(ConfigManager.KVConfig.class);
+        ConfigBinder binder = ConfigBinder.of(configClass);
+        List<GameConfig> list = new ArrayList<>(table.getRowCount());
+        Map<Object, GameConfig> map = new HashMap<>(kv ? 1 : table.getRowCount() * 4 / 3 + 1);
+        table.accept(new ConfigSnapshot.RowVisitor() {
+            private GameConfig config;
+
+            @Override
+            public void beginRow(int rowIndex) throws Exception {
+                config = (GameConfig) binder.newInstance();
+                config.setConfigStore(kv ? GameConfig.ResType.KV : GameConfig.ResType.ARR, ConfigStore.this);
+            }
+
+            @Override
+            public void nullCell(String column) throws Exception {
+                binder.field(column).setString(config, null);
+            }
+
+            @Override
+            public void booleanCell(String column, boolean value) throws Exception {
+                binder.field(column).setBoolean(config, value);
+            }
+
+            @Override
+            public void intCell(String column, int value) throws Exception {
+                binder.field(column).setInt(config, value);
+            }
+
+            @Override
+            public void longCell(String column, long value) throws Exception {
+                binder.field(column).setLong(config, value);
+            }
+
+            @Override
+            public void doubleCell(String column, double value) throws Exception {
+                binder.field(column).setDouble(config, value);
+            }
+
+            @Override
+            public void stringCell(String column, String value) throws Exception {
+                binder.field(column).setString(config, intern(value));
+            }
+
+            @Override
+            public void endRow(int rowIndex) throws Exception {
+                if (kv) {
+                    // KV 表只有一行
+                    if (list.isEmpty()) {
+                        list.add(config);
+                    }
+                    return;
+                }
+                list.add(config);
+                Object dataKey = binder.idOf(config);
+                if (dataKey != null) {
+                    if (map.containsKey(dataKey)) {
+                        throw new Exception("config key duplicate: " + filePath + ", key: " + dataKey);
+                    }
+                    map.put(dataKey, config);
+                }
+            }
+        });
+        publish(list, map);
+    }
+
+    private String intern(String value) {
+        ConfigStringPool pool = this.stringPool;
+        return pool == null ? value : pool.intern(value);
+    }
+
+    /**
+     * 同一次加载的各表共用字符串池，加载结束后传 null 释放
+     */
+    void setStringPool(ConfigStringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    private void publish(List<GameConfig> list, Map<Object, GameConfig> map) {
+        ConfigManager.ColumnarConfig columnarRes = configClass.getAnnotation(ConfigManager.ColumnarConfig.class);
+        if (columnarRes != null) {
+            ColumnarTable table = ColumnarTable.build(configClass, list, columnarRes.offHeap(), filePath);
+            System.out.println(table.memoryReport());
+            this.columnar = table;
+            return;
+        }
+        this.indexes = ConfigIndexes.build(configClass, list, filePath);
+        this.configMap = Collections.unmodifiableMap(map);
+        this.configList = Collections.unmodifiableList(list);
     }
 
     public boolean loadData(String rootPath){
@@ -42,28 +328,24 @@ public class ConfigStore {
     public boolean loadKVData(String filePath){
         try {
             this.filePath = filePath;
-            GameConfig configBase = this.configClass.newInstance();
-            configBase.setConfigStore( GameConfig.ResType.KV,this);
-
-            File file = new File(this.filePath);
-            if (!file.exists()) {
+            ConfigBinder binder = ConfigBinder.of(this.configClass);
+            File file = resolveSource(this.filePath);
+            if (file == null) {
                 throw new RuntimeException("config file not exist: " + this.filePath);
             }
-
-            List<String> content = IOUtils.readLines(new FileInputStream(this.filePath), "UTF-8");
-            StringBuffer sb = new StringBuffer();
-            for(String line : content){
-                sb.append(line);
-            }
-            JSONObject object = JSONObject.parseObject(sb.toString());
-            for (String key : object.keySet()) {
-                setAttr(configBase, key, object.getString(key));
+            this.sourceCrc = ConfigSnapshot.crc32(file);
+            GameConfig configBase = (GameConfig) binder.newInstance();
+            configBase.setConfigStore( GameConfig.ResType.KV,this);
+            try (InputStream in = openSource(file); JSONReader reader = JSONReader.of(in, StandardCharsets.UTF_8)) {
+                if (!readObject(reader, binder, configBase, stringPool)) {
+                    throw new RuntimeException("config file empty: " + this.filePath);
+                }
             }
             // 存储
-            configList.add(configBase);
+            publish(new ArrayList<>(List.of(configBase)), new HashMap<>());
             return true;
         } catch (Exception e) {
-            e.getMessage();
+            System.err.println("config load failed: " + this.filePath + ", " + e);
             return false;
         }
     }
@@ -73,54 +355,253 @@ public class ConfigStore {
 
         try {
             this.filePath = filePath;
-            File file = new File(this.filePath);
-            if (!file.exists()) {
+            File file = resolveSource(this.filePath);
+            if (file == null) {
                 throw new RuntimeException("config file not exist: " + this.filePath);
             }
 
-            List<String> content = IOUtils.readLines(new FileInputStream(this.filePath), "UTF-8");
-            for(String line : content){
-                GameConfig configBase = this.configClass.newInstance();
-                configBase.setConfigStore( GameConfig.ResType.KV,this);
-                JSONObject object = JSONObject.parseObject(line);
-                Object dataKey = null;
-                for (String key : object.keySet()) {
-                    setAttr(configBase, key, object.getString(key));
-                    Field field = getClassField(configBase, key);
-                    ConfigManager.Id id = field.getAnnotation(ConfigManager.Id.class);
-                    if (id != null) {
-                        // id标注重复
-                        if (dataKey != null) {
-                            throw new RuntimeException("config id annotation duplicate: " + this.filePath + ", nodeName: "+ key);
-                        }
-
-                        String type = field.getType().toString();
-                        if (type.indexOf("int") >= 0 || type.indexOf("Integer") >= 0) {
-                            dataKey = object.getIntValue(key);
-                        } else if (type.indexOf("String") >= 0) {
-                            dataKey = object.getString(key);
-                        }
+            ConfigBinder binder = ConfigBinder.of(this.configClass);
+            this.sourceCrc = ConfigSnapshot.crc32(file);
+            List<GameConfig> list = new ArrayList<>();
+            Map<Object, GameConfig> map = new HashMap<>();
+            // JSON lines：每行一个对象，连续读取直到文件结束
+            try (InputStream in = openSource(file); JSONReader reader = JSONReader.of(in, StandardCharsets.UTF_8)) {
+                for (; ; ) {
+                    GameConfig configBase = (GameConfig) binder.newInstance();
+                    configBase.setConfigStore( GameConfig.ResType.ARR,this);
+                    if (!readObject(reader, binder, configBase, stringPool)) {
+                        break;
                     }
-                }
-                // 存储
-                configList.add(configBase);
-                // map存储
-                if (dataKey != null) {
-                    if (configMap.containsKey(dataKey)) {
-                        throw new Exception("config key duplicate: " + this.filePath + ", key: " + dataKey);
+                    Object dataKey = binder.idOf(configBase);
+                    // 存储
+                    list.add(configBase);
+                    // map存储
+                    if (dataKey != null) {
+                        if (map.containsKey(dataKey)) {
+                            throw new Exception("config key duplicate: " + this.filePath + ", key: " + dataKey);
+                        }
+                        map.put(dataKey, configBase);
                     }
-                    configMap.put(dataKey, configBase);
                 }
             }
+            publish(list, map);
             return true;
         } catch (Exception e) {
-            e.getMessage();
+            System.err.println("config load failed: " + this.filePath + ", " + e);
             return false;
         }
     }
 
+    /**
+     * 读取一个 JSON 对象，按字段类型直接写入，不生成中间 JSONObject
+     *
+     * @return 已到文件末尾返回 false
+     */
+    static boolean readObject(JSONReader reader, ConfigBinder binder, Object instance, ConfigStringPool pool) throws Exception {
+        if (!reader.nextIfObjectStart()) {
+            if (reader.isEnd()) {
+                return false;
+            }
+            throw new RuntimeException("config row must be json object, offset: " + reader.getOffset());
+        }
+        while (!reader.nextIfObjectEnd()) {
+            ConfigBinder.FieldBinder field = binder.field(reader.readFieldName());
+            if (reader.nextIfNull()) {
+                field.setString(instance, null);
+            } else if (reader.isString()) {
+                String value = reader.readString();
+                field.setString(instance, pool == null ? value : pool.intern(value));
+            } else if (reader.isNumber() && field.getKind() != null) {
+                switch (field.getKind()) {
+                    case INT -> field.setInt(instance, reader.readInt32Value());
+                    case LONG -> field.setLong(instance, reader.readInt64Value());
+                    case FLOAT, DOUBLE -> field.setDouble(instance, reader.readDoubleValue());
+                    // 字符串字段保留原始数字文本（与 JSONObject.getString 一致）
+                    default -> field.setString(instance, reader.readNumber().toString());
+                }
+            } else if (reader.current() == 't' || reader.current() == 'f') {
+                field.setBoolean(instance, reader.readBoolValue());
+            } else {
+                // 嵌套对象/数组按 JSON 文本写入
+                field.setString(instance, JSON.toJSONString(reader.readAny()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 配置源文件，原文件不存在时查找 .gz 压缩文件，都不存在返回 null
+     */
+    public static File resolveSource(String filePath) {
+        File file = new File(filePath);
+        if (file.isFile()) {
+            return file;
+        }
+        File gzip = new File(filePath + GZIP_SUFFIX);
+        return gzip.isFile() ? gzip : null;
+    }
+
+    /**
+     * 打开配置源文件，gzip 文件（按文件头判断）自动解压
+     */
+    public static InputStream openSource(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        if (b0 == (GZIPInputStream.GZIP_MAGIC & 0xFF) && b1 == (GZIPInputStream.GZIP_MAGIC >>> 8)) {
+            return new GZIPInputStream(in, 1 << 16);
+        }
+        return in;
+    }
+
+
+    public Class<? extends GameConfig> getConfigClass() {
+        return configClass;
+    }
+
+    public ConfigAccessStats getAccessStats() {
+        return stats;
+    }
+
+    /**
+     * 配置类是否重写了 dataCheck/assembleData
+     */
+    boolean hasDataHooks() {
+        // 列式表不保留行对象，不执行检查、组装
+        if (configClass.isAnnotationPresent(ConfigManager.ColumnarConfig.class)) {
+            return false;
+        }
+        try {
+            return configClass.getMethod("dataCheck").getDeclaringClass() != GameConfig.class
+                    || configClass.getMethod("assembleData").getDeclaringClass() != GameConfig.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 逐行执行 dataCheck、assembleData，未重写时跳过（不触发快照解码）
+     */
+    boolean checkAndAssemble() {
+        if (!hasDataHooks()) {
+            return true;
+        }
+        try {
+            ensureLoaded();
+        } catch (IllegalStateException e) {
+            return false;
+        }
+        return runHooks();
+    }
+
+    void setVersion(ConfigVersion version) {
+        this.version = version;
+    }
+
+    /**
+     * 检查、组装期间当前线程通过 ConfigManager 读取的是本表所属版本（尚未发布时也是）
+     */
+    private boolean runHooks() {
+        ConfigVersion owner = this.version;
+        return owner == null ? runHooks0() : ConfigVersion.assemble(owner, this::runHooks0);
+    }
+
+    private boolean runHooks0() {
+        List<GameConfig> configList = this.configList;
+        for (int i = 0; i < configList.size(); i++) {
+            if (!configList.get(i).dataCheck()) {
+                System.err.println("config data check failed: " + this.filePath + ", index: " + i);
+                return false;
+            }
+        }
+        for (int i = 0; i < configList.size(); i++) {
+            if (!configList.get(i).assembleData()) {
+                System.err.println("config assemble failed: " + this.filePath + ", index: " + i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 与旧版本对比，返回变化描述，无变化返回 null
+     * 源文件 CRC 相同时直接视为无变化，不解码快照
+     */
+    String diff(ConfigStore old) {
+        if (old.sourceCrc == this.sourceCrc && this.sourceCrc != -1) {
+            return null;
+        }
+        // 延迟加载的表不为对比而加载
+        if (isLoadPending() || old.isLoadPending()) {
+            return null;
+        }
+        ensureLoaded();
+        old.ensureLoaded();
+        if (columnar != null && old.columnar != null) {
+            return "columnar rows: " + old.columnar.getRowCount() + " -> " + columnar.getRowCount();
+        }
+        ConfigBinder binder = ConfigBinder.of(configClass);
+        List<Object> added = new ArrayList<>();
+        List<Object> removed = new ArrayList<>();
+        List<Object> changed = new ArrayList<>();
+        if (!configMap.isEmpty() || !old.configMap.isEmpty()) {
+            for (Map.Entry<Object, GameConfig> entry : configMap.entrySet()) {
+                GameConfig before = old.configMap.get(entry.getKey());
+                if (before == null) {
+                    added.add(entry.getKey());
+                } else if (!binder.sameValues(before, entry.getValue())) {
+                    changed.add(entry.getKey());
+                }
+            }
+            for (Object key : old.configMap.keySet()) {
+                if (!configMap.containsKey(key)) {
+                    removed.add(key);
+                }
+            }
+        } else {
+            // 无主键按行号对比
+            int common = Math.min(configList.size(), old.configList.size());
+            for (int i = 0; i < common; i++) {
+                if (!binder.sameValues(old.configList.get(i), configList.get(i))) {
+                    changed.add(i);
+                }
+            }
+            for (int i = common; i < configList.size(); i++) {
+                added.add(i);
+            }
+            for (int i = common; i < old.configList.size(); i++) {
+                removed.add(i);
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty() && changed.isEmpty()) {
+            return null;
+        }
+        return "added: " + describe(added) + ", removed: " + describe(removed) + ", changed: " + describe(changed);
+    }
+
+    private static String describe(List<Object> keys) {
+        int limit = 20;
+        if (keys.size() <= limit) {
+            return keys.size() + " " + keys;
+        }
+        return keys.size() + " " + keys.subList(0, limit) + "...";
+    }
+
+    /**
+     * 列式存储，非 @ColumnarConfig 表返回 null
+     */
+    public ColumnarTable getColumnar() {
+        ensureLoaded();
+        stats.record();
+        return columnar;
+    }
 
     public <T> T getConfigByIndex(int index) {
+        ensureLoaded();
+        stats.record();
+        List<GameConfig> configList = this.configList;
         if (configList.size() > index) {
             return (T) configList.get(index);
         }
@@ -128,90 +609,93 @@ public class ConfigStore {
     }
 
     public <T> List<T> getConfigList() {
+        ensureLoaded();
+        stats.record();
         return (List<T>) this.configList;
     }
 
     public <T> T getConfigByKey(Object key) {
+        ensureLoaded();
+        stats.recordKey(key);
         return (T) this.configMap.get(key);
     }
 
+    /**
+     * int 主键查询，不装箱
+     */
+    public <T> T getConfigByIntKey(int key) {
+        ensureLoaded();
+        stats.recordKey(key);
+        return (T) this.indexes.getByPrimary(key);
+    }
 
+    /**
+     * @Index 唯一索引查询
+     */
+    public <T> T getConfigByField(String field, int value) {
+        ensureLoaded();
+        stats.record();
+        return (T) this.indexes.getByIndex(field, value);
+    }
 
+    /**
+     * @GroupIndex 单字段分组查询，返回不可变列表，没有数据返回空列表
+     */
+    public <T> List<T> getConfigGroup(String group, int value) {
+        return getConfigGroup(group, value, 0);
+    }
 
+    /**
+     * @GroupIndex 双字段分组查询（按 order 顺序传值）
+     */
+    public <T> List<T> getConfigGroup(String group, int first, int second) {
+        ensureLoaded();
+        stats.record();
+        return (List<T>) this.indexes.getGroup(group, first, second);
+    }
 
+    /**
+     * @RangeIndex 范围遍历，min <= 字段值 <= max，按字段值升序
+     */
+    public <T> void forEachInRange(String field, int min, int max, Consumer<T> action) {
+        ensureLoaded();
+        stats.record();
+        this.indexes.getRange(field).forEachInRange(min, max, action);
+    }
 
-    public void setAttr(Object instance, String attrName, String attrValue) throws Exception {
-        Field field = getClassField(instance, attrName);
-        if (field == null) {
-            throw new RuntimeException("config class cannot find field, class: " + instance.getClass().getName());
-        }
-        try {
-            // 必须带final属性
-            if ((field.getModifiers() & Modifier.FINAL) == 0) {
-                throw new RuntimeException("config attribute must be final, class: " + instance.getClass().getSimpleName() + ", field: " + attrName);
-            }
-            String type = field.getType().toString();
-            field.setAccessible(true);
-
-            try {
-                if (type.indexOf("boolean") >= 0 || type.indexOf("Boolean") >= 0) {
-                    if (attrValue.equals("0")) {
-                        field.set(instance, false);
-                    } else if (attrValue.equals("1")) {
-                        field.set(instance, true);
-                    } else {
-                        field.set(instance, Boolean.valueOf(attrValue));
-                    }
-                } else if (type.indexOf("int") >= 0 || type.indexOf("Integer") >= 0) {
-                    field.set(instance, Integer.valueOf(attrValue));
-                } else if (type.indexOf("long") >= 0 || type.indexOf("Long") >= 0) {
-                    field.set(instance, Long.valueOf(attrValue));
-                } else if (type.indexOf("float") >= 0 || type.indexOf("Float") >= 0) {
-                    field.set(instance, Float.valueOf(attrValue));
-                } else if (type.indexOf("double") >= 0 || type.indexOf("Double") >= 0) {
-                    field.set(instance, Double.valueOf(attrValue));
-                } else if (type.indexOf("String") >= 0) {
-                    field.set(instance, attrValue);
-                } else if (type.indexOf("Date") >= 0) {
-                    field.set(instance, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(attrValue));
-                } else {
-                    throw new Exception("cannot support property type: " + type);
-                }
-            } catch (Exception exception) {
-                throw exception;
-            } finally {
-                field.setAccessible(false);
-            }
+    public int countInRange(String field, int min, int max) {
+        ensureLoaded();
+        stats.record();
+        return this.indexes.getRange(field).countInRange(min, max);
+    }
 
-        } catch (Exception exception) {
-            throw exception;
-        }
+    /**
+     * @RangeIndex 字段值 <= value 的最后一行，没有返回 null
+     */
+    public <T> T getConfigFloor(String field, int value) {
+        ensureLoaded();
+        stats.record();
+        return this.indexes.getRange(field).floor(value);
     }
 
 
 
 
-    public Field getClassField(Object instance, String attrName) {
-        Field field = null;
-        try {
-            Class<?> instanceClass = instance.getClass();
 
-            do {
-                try {
 
-                    field = instanceClass.getDeclaredField(attrName);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    instanceClass = instanceClass.getSuperclass();
-                }
-            } while (field == null);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public void setAttr(Object instance, String attrName, String attrValue) throws Exception {
+        ConfigBinder.of(instance.getClass()).field(attrName).setString(instance, attrValue);
+    }
 
-        if (field != null) {
-            field.setAccessible(true);
+    public Field getClassField(Object instance, String attrName) {
+        for (Class<?> instanceClass = instance.getClass(); instanceClass != null; instanceClass = instanceClass.getSuperclass()) {
+            for (Field field : instanceClass.getDeclaredFields()) {
+                if (field.getName().equals(attrName)) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
         }
-        return field;
+        return null;
     }
 }
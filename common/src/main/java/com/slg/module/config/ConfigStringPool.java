@@ -0,0 +1,51 @@
+package com.slg.module.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 配置加载字符串池（每次加载一个，加载结束即丢弃）
+ * 相同内容的字符串单元格共用一个 String 实例，重复的图标名、类型名、描述只保留一份
+ * 不使用 String.intern，池随加载结束回收，不占用全局字符串表
+ */
+final class ConfigStringPool {
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("config.intern", "true"));
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>(4096);
+    private final LongAdder seen = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    static ConfigStringPool create() {
+        return ENABLED ? new ConfigStringPool() : null;
+    }
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        seen.increment();
+        String existing = strings.putIfAbsent(value, value);
+        if (existing == null) {
+            return value;
+        }
+        savedBytes.add(sizeOf(value));
+        return existing;
+    }
+
+    /**
+     * String 占用估算：对象头+字段 24 字节，byte[] 头 16 字节，内容按 LATIN1/UTF16 计，8 字节对齐
+     */
+    static long sizeOf(String value) {
+        int length = value.length();
+        boolean latin1 = true;
+        for (int i = 0; i < length && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long array = 16 + (latin1 ? length : 2L * length);
+        return 24 + ((array + 7) & ~7L);
+    }
+
+    String report() {
+        return "strings seen: " + seen.sum() + ", unique: " + strings.size() + ", saved: " + savedBytes.sum() / 1024 + "KB";
+    }
+}
@@ -0,0 +1,66 @@
+package com.slg.module.config;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 配置字符串符号表（进程内全局，只增不减，重载后同一字符串 id 不变）
+ * @Symbol 标注的 int 字段从 JSON 字符串读取时转为符号 id，业务按 int 比较，不再比较字符串
+ * id 从 1 开始，0 表示空
+ */
+public final class ConfigSymbols {
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int nextId = 1;
+
+    private ConfigSymbols() {
+    }
+
+    /**
+     * 字符串对应的 id，不存在时分配
+     */
+    public static int intern(String name) {
+        if (name == null || name.isEmpty()) {
+            return 0;
+        }
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (ConfigSymbols.class) {
+            id = IDS.get(name);
+            if (id != null) {
+                return id;
+            }
+            int newId = nextId++;
+            String[] current = names;
+            if (newId >= current.length) {
+                current = Arrays.copyOf(current, current.length << 1);
+            }
+            current[newId] = name;
+            names = current;
+            IDS.put(name, newId);
+            return newId;
+        }
+    }
+
+    /**
+     * 已有字符串的 id，不存在返回 0（不分配）
+     */
+    public static int idOf(String name) {
+        Integer id = name == null ? null : IDS.get(name);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * id 对应的字符串，不存在返回 null
+     */
+    public static String nameOf(int id) {
+        String[] current = names;
+        return id > 0 && id < current.length ? current[id] : null;
+    }
+
+    public static int size() {
+        return IDS.size();
+    }
+}
@@ -0,0 +1,108 @@
+package com.slg.module.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 一次完整加载的配置（不可变）
+ * 重载时整体构建新版本后原子替换，需要跨多张表读取一致数据时先取 ConfigManager.current() 再读
+ * 检查、组装期间（dataCheck/assembleData），当前线程通过 ConfigManager 读到的是正在构建的版本
+ */
+public final class ConfigVersion {
+    static final ConfigVersion EMPTY = new ConfigVersion(0, Collections.emptyMap());
+
+    // 当前线程正在检查、组装的版本
+    private static final ThreadLocal<ConfigVersion> ASSEMBLING = new ThreadLocal<>();
+
+    private final int version;
+    private final long loadTime;
+    private final Map<Class<? extends GameConfig>, ConfigStore> storages;
+
+    ConfigVersion(int version, Map<Class<? extends GameConfig>, ConfigStore> storages) {
+        this.version = version;
+        this.loadTime = System.currentTimeMillis();
+        this.storages = Collections.unmodifiableMap(storages);
+        for (ConfigStore store : storages.values()) {
+            store.setVersion(this);
+        }
+    }
+
+    /**
+     * 当前线程正在检查、组装的版本，不在检查、组装中返回 null
+     */
+    static ConfigVersion assembling() {
+        return ASSEMBLING.get();
+    }
+
+    /**
+     * 以 version 作为正在构建的版本执行 action（可嵌套，结束后恢复外层版本）
+     */
+    static <T> T assemble(ConfigVersion version, Supplier<T> action) {
+        ConfigVersion outer = ASSEMBLING.get();
+        ASSEMBLING.set(version);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                ASSEMBLING.remove();
+            } else {
+                ASSEMBLING.set(outer);
+            }
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    public ConfigStore getStore(Class<? extends GameConfig> cfgClass) {
+        return storages.get(cfgClass);
+    }
+
+    public Map<Class<? extends GameConfig>, ConfigStore> getStorages() {
+        return storages;
+    }
+
+    public <T extends GameConfig> T getKVConfig(Class<T> cfgClass) {
+        ConfigStore storage = storages.get(cfgClass);
+        if (storage != null) {
+            return storage.getConfigByIndex(0);
+        }
+        return null;
+    }
+
+    public <T extends GameConfig> List<T> getConfigDataList(Class<T> cfgClass) {
+        ConfigStore storage = storages.get(cfgClass);
+        if (storage != null) {
+            return storage.getConfigList();
+        }
+        return null;
+    }
+
+    public <T extends GameConfig> T getConfigDataByKey(Class<T> cfgClass, Object key) {
+        ConfigStore storage = storages.get(cfgClass);
+        if (storage != null) {
+            return storage.getConfigByKey(key);
+        }
+        return null;
+    }
+
+    public ColumnarTable getColumnar(Class<? extends GameConfig> cfgClass) {
+        ConfigStore storage = storages.get(cfgClass);
+        return storage == null ? null : storage.getColumnar();
+    }
+
+    public <T extends GameConfig> T getConfigDataByIntKey(Class<T> cfgClass, int key) {
+        ConfigStore storage = storages.get(cfgClass);
+        if (storage != null) {
+            return storage.getConfigByIntKey(key);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,398 @@
+package com.slg.module.config;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * Excel 配置编译（构建时执行）
+ * 用 XSSF 事件模型（SAX）逐行读取 xlsx，按配置类校验后直接写为 ConfigSnapshot，服务器启动不再解析 JSON
+ * 1，sheet 名对应配置注解 path 的文件名（不含扩展名），如 path = "hero/hero.json" 对应 sheet "hero"，不对应的 sheet 跳过
+ * 2，第一行为字段名，必须是配置类的字段；空表头或 # 开头的列不导出
+ * 3，A 列以 # 开头的行为注释行，空行跳过
+ * 4，有 @Id 的配置必须有 id 列且 id 不能为空、不能重复；KV 配置最多一行数据
+ * 5，数值单元格取原始值，不受单元格显示格式（小数位、千分位、百分比、科学计数）影响
+ * 6，单元格按字段类型转换，类型不符在编译时报错（带单元格坐标），不留到运行时；整数字段的小数值报错，不四舍五入
+ * 7，日期字段接受日期单元格或 yyyy-MM-dd HH:mm:ss 文本，统一写为该格式文本
+ * 行读到即写入快照，内存只与共享字符串表和 id 数量有关，与行数无关
+ * 快照表记录源类型 SOURCE_EXCEL 和 xlsx 相对路径，运行时用 -Dconfig.excel.dir 下的 xlsx 校验，不与配置目录下的 JSON 比较
+ * 用法：java com.slg.module.config.ExcelConfigCompiler [excel目录] [输出文件] [配置类包名]
+ */
+public class ExcelConfigCompiler {
+    private static final String EXCEL_SUFFIX = ".xlsx";
+
+    private final Map<String, Class<? extends GameConfig>> sheetClasses = new HashMap<>();
+    private final Map<Class<? extends GameConfig>, String> configPaths;
+
+    public ExcelConfigCompiler(Map<Class<? extends GameConfig>, String> configPaths) {
+        this.configPaths = configPaths;
+        for (Map.Entry<Class<? extends GameConfig>, String> entry : configPaths.entrySet()) {
+            String sheetName = sheetName(entry.getValue());
+            Class<? extends GameConfig> exist = sheetClasses.put(sheetName, entry.getKey());
+            if (exist != null) {
+                throw new RuntimeException("config sheet name duplicate: " + sheetName + ", class: "
+                        + exist.getName() + ", " + entry.getKey().getName());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File excelDir = new File(args.length > 0 ? args[0] : System.getProperty("user.dir") + File.separator + "excel");
+        File output = new File(args.length > 1 ? args[1] : System.getProperty("user.dir") + File.separator + "config" + File.separator + ConfigSnapshot.DEFAULT_FILE_NAME);
+        String configPackage = args.length > 2 ? args[2] : System.getProperty("config.package", "com.slg");
+        Map<Class<? extends GameConfig>, String> configPaths = ConfigManager.scanConfigClasses(configPackage);
+        if (configPaths == null) {
+            throw new IOException("config class scan failed: " + configPackage);
+        }
+        long start = System.currentTimeMillis();
+        int tables = new ExcelConfigCompiler(configPaths).compile(excelDir, output);
+        System.out.println("excel config compiled: " + output + ", tables: " + tables
+                + ", bytes: " + output.length() + ", cost: " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * path 去掉目录和扩展名
+     */
+    static String sheetName(String path) {
+        String name = ConfigSnapshot.normalizePath(path);
+        name = name.substring(name.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * @return 写入的表数量
+     */
+    public int compile(File excelDir, File output) throws IOException {
+        if (!excelDir.isDirectory()) {
+            throw new IOException("excel dir not exist: " + excelDir);
+        }
+        List<File> files = new ArrayList<>();
+        collectFiles(excelDir, files);
+        File temp = new File(output.getPath() + ".tmp");
+        Set<String> written = new HashSet<>();
+        int tableCount;
+        try (ConfigSnapshotWriter writer = new ConfigSnapshotWriter(temp)) {
+            for (File file : files) {
+                compileWorkbook(excelDir, file, writer, written);
+            }
+            tableCount = writer.tableCount();
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+        for (String sheet : sheetClasses.keySet()) {
+            if (!written.contains(sheet)) {
+                System.err.println("excel config sheet not found: " + sheet);
+            }
+        }
+        // 写完再替换，避免运行中的进程映射到半个文件
+        ConfigSnapshot.replace(temp, output);
+        return tableCount;
+    }
+
+    private static void collectFiles(File dir, List<File> files) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            // ~$ 开头为 Excel 打开时的锁文件
+            if (child.getName().startsWith(".") || child.getName().startsWith("~$")) {
+                continue;
+            }
+            if (child.isDirectory()) {
+                collectFiles(child, files);
+            } else if (child.getName().toLowerCase().endsWith(EXCEL_SUFFIX)) {
+                files.add(child);
+            }
+        }
+    }
+
+    private void compileWorkbook(File excelDir, File file, ConfigSnapshotWriter writer, Set<String> written) throws IOException {
+        long sourceCrc = ConfigSnapshot.crc32(file);
+        String sourceName = ConfigSnapshot.normalizePath(excelDir.toPath().relativize(file.toPath()).toString());
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (Exception e) {
+            throw new IOException("excel open failed: " + file + ", " + e.getMessage(), e);
+        }
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new RawValueFormatter();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream stream = sheets.next()) {
+                    String sheet = sheets.getSheetName().trim();
+                    Class<? extends GameConfig> configClass = sheetClasses.get(sheet);
+                    if (configClass == null) {
+                        continue;
+                    }
+                    if (!written.add(sheet)) {
+                        throw new RuntimeException("excel config sheet duplicate: " + sheet + ", file: " + file);
+                    }
+                    String path = configPaths.get(configClass);
+                    long start = System.currentTimeMillis();
+                    SheetWriter sheetWriter = new SheetWriter(file.getName() + "#" + sheet, configClass, writer);
+                    writer.beginTable(path, ConfigSnapshot.SOURCE_EXCEL, sourceName, sourceCrc, file.length());
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, sheetWriter, formatter, false));
+                    parser.parse(new InputSource(stream));
+                    sheetWriter.finish();
+                    writer.endTable();
+                    System.out.println("excel config sheet: " + sheet + " -> " + path + ", rows: " + sheetWriter.rowCount
+                            + ", cost: " + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("excel read failed: " + file + ", " + e.getMessage(), e);
+        } finally {
+            // 只读打开，revert 关闭且不回写
+            pkg.revert();
+        }
+    }
+
+    /**
+     * A1 形式的单元格坐标转列号（从 0 开始）
+     */
+    static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * 单个 sheet 的行处理，校验后直接写入快照
+     */
+    private static final class SheetWriter implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final String name;
+        private final Class<? extends GameConfig> configClass;
+        private final ConfigBinder binder;
+        private final ConfigSnapshotWriter writer;
+        private final boolean kv;
+        private final Set<Object> ids = new HashSet<>();
+        private ConfigBinder.FieldBinder[] columns = new ConfigBinder.FieldBinder[0];
+        private int headerRow = -1;
+        private int idColumn = -1;
+        private int rowNum;
+        private boolean skipRow;
+        private boolean rowStarted;
+        private Object rowId;
+        private int rowCount;
+
+        SheetWriter(String name, Class<? extends GameConfig> configClass, ConfigSnapshotWriter writer) {
+            this.name = name;
+            this.configClass = configClass;
+            this.binder = ConfigBinder.of(configClass);
+            this.writer = writer;
+            this.kv = configClass.isAnnotationPresent(ConfigManager.KVConfig.class);
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            this.rowNum = rowNum;
+            this.skipRow = false;
+            this.rowStarted = false;
+            this.rowId = null;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (skipRow || formattedValue == null) {
+                return;
+            }
+            int column = columnIndex(cellReference);
+            String value = formattedValue.trim();
+            if (headerRow < 0 || headerRow == rowNum) {
+                headerRow = rowNum;
+                header(column, value, cellReference);
+                return;
+            }
+            if (column == 0 && value.startsWith("#")) {
+                skipRow = true;
+                return;
+            }
+            if (value.isEmpty() || column >= columns.length || columns[column] == null) {
+                return;
+            }
+            if (!rowStarted) {
+                if (kv && rowCount > 0) {
+                    throw error(cellReference, "kv config support only one row");
+                }
+                writer.beginRow();
+                rowStarted = true;
+            }
+            writeCell(columns[column], value, cellReference, column == idColumn);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == headerRow) {
+                checkHeader();
+                return;
+            }
+            if (!rowStarted) {
+                return;
+            }
+            if (idColumn >= 0 && rowId == null) {
+                throw error("row " + (rowNum + 1), "id is empty");
+            }
+            try {
+                writer.endRow();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            rowCount++;
+        }
+
+        private void header(int column, String value, String cellReference) {
+            if (value.isEmpty() || value.startsWith("#")) {
+                return;
+            }
+            ConfigBinder.FieldBinder field = binder.getFields().get(value);
+            if (field == null) {
+                throw error(cellReference, "column not exist in " + configClass.getSimpleName() + ": " + value);
+            }
+            if (field.getKind() == null) {
+                throw error(cellReference, "cannot support property type: " + value);
+            }
+            if (column >= columns.length) {
+                columns = Arrays.copyOf(columns, column + 1);
+            }
+            for (ConfigBinder.FieldBinder exist : columns) {
+                if (exist == field) {
+                    throw error(cellReference, "column duplicate: " + value);
+                }
+            }
+            columns[column] = field;
+            if (field == binder.getIdField()) {
+                idColumn = column;
+            }
+        }
+
+        private void checkHeader() {
+            boolean empty = true;
+            for (ConfigBinder.FieldBinder field : columns) {
+                empty &= field == null;
+            }
+            if (empty) {
+                throw error("row " + (rowNum + 1), "header has no config column");
+            }
+            if (binder.getIdField() != null && idColumn < 0) {
+                throw error("row " + (rowNum + 1), "id column missing: " + binder.getIdField().getName());
+            }
+        }
+
+        void finish() {
+            if (headerRow < 0) {
+                throw error("sheet", "header row missing");
+            }
+        }
+
+        private void writeCell(ConfigBinder.FieldBinder field, String value, String cellReference, boolean id) {
+            String column = field.getName();
+            Object key = value;
+            try {
+                switch (field.getKind()) {
+                    case BOOLEAN -> writer.booleanCell(column, parseBoolean(value));
+                    case INT -> {
+                        if (field.isSymbol()) {
+                            writer.stringCell(column, value);
+                        } else {
+                            int v = Integer.parseInt(value);
+                            writer.intCell(column, v);
+                            key = v;
+                        }
+                    }
+                    case LONG -> writer.longCell(column, Long.parseLong(value));
+                    case FLOAT, DOUBLE -> writer.doubleCell(column, Double.parseDouble(value));
+                    case DATE -> writer.stringCell(column, ConfigBinder.formatDate(parseDate(value)));
+                    default -> writer.stringCell(column, value);
+                }
+            } catch (NumberFormatException | ParseException e) {
+                throw error(cellReference, "value type mismatch, field: " + column + " (" + field.getType().getSimpleName() + "), value: " + value);
+            }
+            if (id) {
+                if (!ids.add(key)) {
+                    throw error(cellReference, "id duplicate: " + value);
+                }
+                rowId = key;
+            }
+        }
+
+        /**
+         * 日期单元格为序列值（数字），文本按 yyyy-MM-dd HH:mm:ss 解析
+         */
+        private static Date parseDate(String value) throws ParseException {
+            if (!value.isEmpty() && (Character.isDigit(value.charAt(0)) && value.indexOf('-') < 0)) {
+                return DateUtil.getJavaDate(Double.parseDouble(value));
+            }
+            return ConfigBinder.parseDate(value);
+        }
+
+        private static boolean parseBoolean(String value) {
+            if ("1".equals(value) || "true".equalsIgnoreCase(value)) {
+                return true;
+            }
+            if ("0".equals(value) || "false".equalsIgnoreCase(value)) {
+                return false;
+            }
+            throw new NumberFormatException(value);
+        }
+
+        private RuntimeException error(String position, String message) {
+            return new RuntimeException("excel config error: " + name + " " + position + ", " + message);
+        }
+    }
+
+    /**
+     * 数值单元格输出原始值而不是显示文本：整数不带小数点，小数为不丢精度的普通记数法
+     * 如格式 "0" 下的 2.6 输出 2.6（写入 int 字段时报错），"#,##0" 下的 12345 输出 12345，50% 输出 0.5
+     */
+    private static final class RawValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            return raw(value);
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            return raw(value);
+        }
+
+        static String raw(double value) {
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return Long.toString((long) value);
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
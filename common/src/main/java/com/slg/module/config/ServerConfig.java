@@ -5,6 +5,8 @@ public class ServerConfig {
     private int serverId;
     private String host;
     private int port;
+    //Nacos 实例权重，默认 1
+    private double weight = 1.0;
 
     public int getGroupId() {
         return groupId;
@@ -16,6 +18,8 @@ public class ServerConfig {
 
     private int MinProtoId;
     private int MaxProtoId;
+    //协议区间 [起点, 终点] 成对排列，已排序合并；为 null 时即 [MinProtoId, MaxProtoId]
+    private int[] protoRanges;
 
     public ServerConfig() {
     }
@@ -58,6 +62,29 @@ public class ServerConfig {
         MaxProtoId = maxProtoId;
     }
 
+    public int[] getProtoRanges() {
+        return protoRanges != null ? protoRanges : new int[]{MinProtoId, MaxProtoId};
+    }
+
+    /**
+     * 设置多段协议区间，同时把 MinProtoId/MaxProtoId 设为整体上下界
+     */
+    public void setProtoRanges(int[] protoRanges) {
+        this.protoRanges = protoRanges;
+        if (protoRanges != null && protoRanges.length >= 2) {
+            MinProtoId = protoRanges[0];
+            MaxProtoId = protoRanges[protoRanges.length - 1];
+        }
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
     public int getServerId() {
         return serverId;
     }
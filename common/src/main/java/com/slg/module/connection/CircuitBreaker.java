@@ -0,0 +1,427 @@
+package com.slg.module.connection;
+
+import com.slg.module.config.ServerConfig;
+import com.slg.module.message.ErrorCodeConstants;
+import io.netty.util.collection.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实例熔断（按 serverId 一份，挂在 InstanceStats 上，由 onComplete 喂入回包结果和延迟）
+ * 1，CLOSED：滑动窗口（-Dserver.breaker.window 毫秒，分 10 桶）内请求数达到 minRequests，且失败率或慢请求率达到阈值时熔断
+ * 2，OPEN：实例从路由中剔除，剔除时长按连续熔断次数指数退避（base, 2*base, 4*base ... 最长 maxEject）
+ * 3，HALF_OPEN：剔除到期后仍不进入正常路由，只由 probe 放行 probes 个探测请求，全部返回时判定：仍超阈值再次熔断，否则关闭恢复路由
+ * 探测请求超过一个窗口没有全部返回时按已返回的结果判定，一个都没有返回则再放行一批
+ * 4，同一组内被剔除（OPEN、HALF_OPEN）的实例不超过 maxEjectionPercent，超出的部分按组内顺序保留在路由中，避免剩余实例被压垮
+ * 5，实例从拓扑中移除时熔断状态清除（onTopologyChanged），重新上线从 CLOSED 开始
+ * 失败指服务端故障类错误码（见 isFailure）、超时和发送失败，业务错误码不计入
+ * 状态变化计数见 report()，没有实例熔断时路由无额外开销
+ */
+public final class CircuitBreaker {
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    static final int BUCKETS = 10;
+    static final long WINDOW_NANOS = Long.getLong("server.breaker.window", 10_000L) * 1_000_000L;
+    static final long BUCKET_NANOS = Math.max(WINDOW_NANOS / BUCKETS, 1);
+    static final int MIN_REQUESTS = Integer.getInteger("server.breaker.minRequests", 20);
+    // 百分比
+    static final int FAILURE_RATE = Integer.getInteger("server.breaker.failureRate", 50);
+    static final int SLOW_RATE = Integer.getInteger("server.breaker.slowRate", 50);
+    static final long SLOW_NANOS = Long.getLong("server.breaker.slowMillis", 1000L) * 1_000_000L;
+    static final long BASE_EJECT_NANOS = Long.getLong("server.breaker.baseEject", 5000L) * 1_000_000L;
+    static final long MAX_EJECT_NANOS = Long.getLong("server.breaker.maxEject", 60_000L) * 1_000_000L;
+    static final int PROBES = Integer.getInteger("server.breaker.probes", 10);
+    static final int MAX_EJECTION_PERCENT = Integer.getInteger("server.breaker.maxEjectionPercent", 50);
+    // 桶序号起点，nanoTime 可能为负
+    private static final long EPOCH_NANOS = System.nanoTime();
+    // 空桶的序号，与任何当前序号相差都不小于 BUCKETS
+    private static final long EMPTY_BUCKET = -BUCKETS;
+
+    // 影响路由的状态变化次数，路由缓存以此判断是否失效
+    private static final AtomicLong version = new AtomicLong();
+    // 处于 OPEN、HALF_OPEN 的实例数，都为 0 时路由直接使用原组
+    private static final AtomicInteger openCount = new AtomicInteger();
+    private static final AtomicInteger halfOpenCount = new AtomicInteger();
+    private static final LongAdder openedTotal = new LongAdder();
+    private static final LongAdder halfOpenedTotal = new LongAdder();
+    private static final LongAdder closedTotal = new LongAdder();
+    private static final LongAdder resetTotal = new LongAdder();
+    // 每个 groupId 缓存的组列表数（同一 groupId 可能有多个候选列表，见 ProtoRouteTable）
+    static final int MAX_CACHED = 8;
+    // groupId -> 剔除熔断实例后的组（最近使用的在前），写时复制，读无锁
+    private static volatile IntObjectHashMap<Routable[]> routables = new IntObjectHashMap<>();
+
+    private final int serverId;
+    private volatile State state = State.CLOSED;
+    private volatile long openUntilNanos;
+    // 以下字段只在持有 this 锁时读写
+    private final long[] bucketIndexes = new long[BUCKETS];
+    private final int[] bucketRequests = new int[BUCKETS];
+    private final int[] bucketFailures = new int[BUCKETS];
+    private final int[] bucketSlows = new int[BUCKETS];
+    private int probeRequests;
+    private int probeFailures;
+    private int probeSlows;
+    // HALF_OPEN 剩余可放行的探测请求数
+    private int probePermits;
+    private long probeDeadlineNanos;
+    // 连续熔断次数，关闭后稳定超过 maxEject 清零
+    private int ejections;
+    private long closedSinceNanos;
+    private long ejectedTotal;
+
+    CircuitBreaker(int serverId) {
+        this.serverId = serverId;
+        Arrays.fill(bucketIndexes, EMPTY_BUCKET);
+    }
+
+    public static CircuitBreaker of(int serverId) {
+        return InstanceStats.of(serverId).getBreaker();
+    }
+
+    /**
+     * 是否为服务端故障类错误码（计入熔断），业务错误（未登录、参数错误、认证失败等）不计入
+     */
+    public static boolean isFailure(int errorCode) {
+        return errorCode == ErrorCodeConstants.SERIALIZATION_METHOD_LACK
+                || errorCode == ErrorCodeConstants.ESTABLISH_CONNECTION_FAILED
+                || errorCode == ErrorCodeConstants.GATE_FORWARDING_FAILED
+                || (errorCode >= ErrorCodeConstants.DATABASE_CONNECTION_ERROR && errorCode < ErrorCodeConstants.AUTHENTICATION_FAILED);
+    }
+
+    /**
+     * 记录一次请求结果（由 InstanceStats.onComplete 调用）
+     */
+    void record(long latencyNanos, boolean success) {
+        boolean slow = latencyNanos >= SLOW_NANOS;
+        long now = System.nanoTime();
+        synchronized (this) {
+            switch (state) {
+                case CLOSED -> {
+                    long index = (now - EPOCH_NANOS) / BUCKET_NANOS;
+                    int slot = (int) (index % BUCKETS);
+                    if (bucketIndexes[slot] != index) {
+                        bucketIndexes[slot] = index;
+                        bucketRequests[slot] = 0;
+                        bucketFailures[slot] = 0;
+                        bucketSlows[slot] = 0;
+                    }
+                    bucketRequests[slot]++;
+                    bucketFailures[slot] += success ? 0 : 1;
+                    bucketSlows[slot] += slow ? 1 : 0;
+                    int requests = 0;
+                    int failures = 0;
+                    int slows = 0;
+                    for (int i = 0; i < BUCKETS; i++) {
+                        if (index - bucketIndexes[i] < BUCKETS) {
+                            requests += bucketRequests[i];
+                            failures += bucketFailures[i];
+                            slows += bucketSlows[i];
+                        }
+                    }
+                    if (requests >= MIN_REQUESTS && tripped(requests, failures, slows)) {
+                        open(now, "失败 " + failures + "/" + requests + ", 慢请求 " + slows + "/" + requests);
+                    }
+                }
+                case HALF_OPEN -> {
+                    probeRequests++;
+                    probeFailures += success ? 0 : 1;
+                    probeSlows += slow ? 1 : 0;
+                    if (probeRequests >= PROBES) {
+                        judge(now);
+                    }
+                }
+                // 熔断前发出的请求陆续返回，忽略
+                case OPEN -> {
+                }
+            }
+        }
+    }
+
+    private void judge(long now) {
+        if (tripped(probeRequests, probeFailures, probeSlows)) {
+            open(now, "探测失败 " + probeFailures + "/" + probeRequests + ", 慢请求 " + probeSlows + "/" + probeRequests);
+        } else {
+            close(now);
+        }
+    }
+
+    private static boolean tripped(int requests, int failures, int slows) {
+        return (long) failures * 100 >= (long) requests * FAILURE_RATE || (long) slows * 100 >= (long) requests * SLOW_RATE;
+    }
+
+    private void open(long now, String reason) {
+        if (ejections > 0 && closedSinceNanos != 0 && now - closedSinceNanos > MAX_EJECT_NANOS) {
+            ejections = 0;
+        }
+        ejections++;
+        ejectedTotal++;
+        long duration = Math.min(BASE_EJECT_NANOS << Math.min(ejections - 1, 16), MAX_EJECT_NANOS);
+        openUntilNanos = now + duration;
+        if (state == State.HALF_OPEN) {
+            halfOpenCount.decrementAndGet();
+        }
+        state = State.OPEN;
+        openCount.incrementAndGet();
+        openedTotal.increment();
+        version.incrementAndGet();
+        System.err.println("实例熔断: " + serverId + ", " + reason + ", 剔除 " + duration / 1_000_000 + "ms, 连续第 " + ejections + " 次");
+    }
+
+    private void halfOpen(long now) {
+        probeRequests = 0;
+        probeFailures = 0;
+        probeSlows = 0;
+        probePermits = PROBES;
+        probeDeadlineNanos = now + WINDOW_NANOS;
+        state = State.HALF_OPEN;
+        openCount.decrementAndGet();
+        halfOpenCount.incrementAndGet();
+        halfOpenedTotal.increment();
+        version.incrementAndGet();
+        System.out.println("实例熔断到期, 开始探测: " + serverId);
+    }
+
+    private void close(long now) {
+        Arrays.fill(bucketIndexes, EMPTY_BUCKET);
+        closedSinceNanos = now;
+        state = State.CLOSED;
+        halfOpenCount.decrementAndGet();
+        closedTotal.increment();
+        version.incrementAndGet();
+        System.out.println("实例熔断关闭, 恢复路由: " + serverId);
+    }
+
+    /**
+     * 清除熔断状态和统计（实例从拓扑中移除时）
+     */
+    synchronized void reset() {
+        State old = state;
+        if (old == State.OPEN) {
+            openCount.decrementAndGet();
+        } else if (old == State.HALF_OPEN) {
+            halfOpenCount.decrementAndGet();
+        }
+        Arrays.fill(bucketIndexes, EMPTY_BUCKET);
+        ejections = 0;
+        closedSinceNanos = 0;
+        state = State.CLOSED;
+        if (old != State.CLOSED) {
+            resetTotal.increment();
+            version.incrementAndGet();
+            System.out.println("实例已移除, 清除熔断状态: " + serverId + ", " + old);
+        }
+    }
+
+    /**
+     * 实例当前是否在正常路由中（CLOSED），OPEN 到期时转为 HALF_OPEN（只接受探测请求）
+     */
+    public boolean isAvailable(long now) {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && now - openUntilNanos >= 0) {
+            synchronized (this) {
+                if (state == State.OPEN && now - openUntilNanos >= 0) {
+                    halfOpen(now);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * HALF_OPEN 时申请放行一个探测请求
+     */
+    boolean tryProbe(long now) {
+        if (state != State.HALF_OPEN) {
+            return false;
+        }
+        synchronized (this) {
+            if (state != State.HALF_OPEN) {
+                return false;
+            }
+            if (probePermits > 0) {
+                probePermits--;
+                return true;
+            }
+            if (now - probeDeadlineNanos < 0) {
+                return false;
+            }
+            // 探测请求迟迟没有全部返回（超时未计入或协议没有回包）
+            if (probeRequests > 0) {
+                judge(now);
+                return false;
+            }
+            probePermits = PROBES - 1;
+            probeDeadlineNanos = now + WINDOW_NANOS;
+            return true;
+        }
+    }
+
+    /**
+     * 组内 HALF_OPEN 且还有探测名额的实例，没有返回 null，路由时优先于负载均衡使用
+     */
+    public static ServerConfig probe(List<ServerConfig> group) {
+        if (halfOpenCount.get() == 0) {
+            return null;
+        }
+        long now = System.nanoTime();
+        for (int i = 0, size = group.size(); i < size; i++) {
+            ServerConfig config = group.get(i);
+            if (of(config.getServerId()).tryProbe(now)) {
+                return config;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 拓扑变更监听：移除的实例清除熔断状态（否则一直 OPEN，openCount 不归零，路由永远走过滤路径），并清空路由缓存
+     */
+    public static void onTopologyChanged(ServerTopology old, ServerTopology current, ServerTopology.Diff diff) {
+        for (ServerConfig removed : diff.getRemoved()) {
+            of(removed.getServerId()).reset();
+        }
+        synchronized (CircuitBreaker.class) {
+            routables = new IntObjectHashMap<>();
+        }
+    }
+
+    /**
+     * 组内可路由的实例（不可变），没有实例熔断时返回原组
+     * 结果按组列表身份缓存（每个 groupId 最多 MAX_CACHED 个），组、熔断状态不变且没有剔除到期时直接复用，列表身份稳定，一致性哈希环不会反复重建
+     */
+    public static List<ServerConfig> routable(List<ServerConfig> group) {
+        if ((openCount.get() == 0 && halfOpenCount.get() == 0) || group.size() <= 1) {
+            return group;
+        }
+        long now = System.nanoTime();
+        int groupId = group.get(0).getGroupId();
+        Routable[] cached = routables.get(groupId);
+        if (cached != null) {
+            for (Routable routable : cached) {
+                if (routable.source == group) {
+                    if (routable.version == version.get() && now - routable.expireNanos < 0) {
+                        return routable.servers;
+                    }
+                    break;
+                }
+            }
+        }
+        return filter(groupId, group, now);
+    }
+
+    private static List<ServerConfig> filter(int groupId, List<ServerConfig> group, long now) {
+        long currentVersion = version.get();
+        int allowed = group.size() * MAX_EJECTION_PERCENT / 100;
+        List<ServerConfig> servers = new ArrayList<>(group.size());
+        long expire = Long.MAX_VALUE;
+        boolean hasExpire = false;
+        int ejected = 0;
+        for (ServerConfig config : group) {
+            CircuitBreaker breaker = of(config.getServerId());
+            if (breaker.isAvailable(now) || ejected >= allowed) {
+                servers.add(config);
+                continue;
+            }
+            ejected++;
+            long until = breaker.openUntilNanos;
+            // HALF_OPEN 的状态变化会增加版本，只需按 OPEN 的到期时间重新计算
+            if (breaker.state == State.OPEN && (!hasExpire || until - expire < 0)) {
+                expire = until;
+                hasExpire = true;
+            }
+        }
+        List<ServerConfig> result = ejected == 0 ? group : Collections.unmodifiableList(servers);
+        // 转为 HALF_OPEN 会增加版本，此时不缓存，下次重新计算
+        if (currentVersion == version.get()) {
+            Routable routable = new Routable(group, currentVersion, hasExpire ? expire : now + BASE_EJECT_NANOS, result);
+            synchronized (CircuitBreaker.class) {
+                Routable[] exist = routables.get(groupId);
+                List<Routable> next = new ArrayList<>(MAX_CACHED);
+                next.add(routable);
+                if (exist != null) {
+                    for (Routable other : exist) {
+                        if (other.source != group && next.size() < MAX_CACHED) {
+                            next.add(other);
+                        }
+                    }
+                }
+                IntObjectHashMap<Routable[]> copy = new IntObjectHashMap<>(routables.size() * 2 + 2);
+                copy.putAll(routables);
+                copy.put(groupId, next.toArray(new Routable[0]));
+                routables = copy;
+            }
+        }
+        return result;
+    }
+
+    public int getServerId() {
+        return serverId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 累计熔断次数
+     */
+    public synchronized long getEjectedTotal() {
+        return ejectedTotal;
+    }
+
+    public static int getOpenCount() {
+        return openCount.get();
+    }
+
+    public static int getHalfOpenCount() {
+        return halfOpenCount.get();
+    }
+
+    public static long getOpenedTotal() {
+        return openedTotal.sum();
+    }
+
+    public static long getHalfOpenedTotal() {
+        return halfOpenedTotal.sum();
+    }
+
+    public static long getClosedTotal() {
+        return closedTotal.sum();
+    }
+
+    public static String report() {
+        return "circuit breaker: open " + openCount.get() + ", half open " + halfOpenCount.get()
+                + ", CLOSED->OPEN/HALF_OPEN->OPEN " + openedTotal.sum() + ", OPEN->HALF_OPEN " + halfOpenedTotal.sum()
+                + ", HALF_OPEN->CLOSED " + closedTotal.sum() + ", reset on removal " + resetTotal.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{serverId=" + serverId + ", state=" + state + ", ejected=" + getEjectedTotal() + "}";
+    }
+
+    private static final class Routable {
+        final List<ServerConfig> source;
+        final long version;
+        // 最早的剔除到期时间，到期后重新计算
+        final long expireNanos;
+        final List<ServerConfig> servers;
+
+        Routable(List<ServerConfig> source, long version, long expireNanos, List<ServerConfig> servers) {
+            this.source = source;
+            this.version = version;
+            this.expireNanos = expireNanos;
+            this.servers = servers;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.slg.module.connection;
+
+import com.slg.module.config.ServerConfig;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一致性哈希环（不可变，组内实例变化时重建）
+ * 1，每个实例按权重放置若干虚拟节点，节点位置只由 serverId 决定，与地址和加入顺序无关
+ * 2，userId 哈希后顺时针找第一个节点，二分查找 O(log n)，不分配对象
+ * 3，增删一个实例只影响它相邻区间的用户，约 1/n 的用户迁移，可用 movedFraction 实测
+ */
+public final class ConsistentHashRing {
+    // 权重 1 的实例虚拟节点数，-Dserver.hash.vnodes
+    static final int VIRTUAL_NODES = Integer.getInteger("server.hash.vnodes", 160);
+
+    private final long[] points;
+    private final ServerConfig[] owners;
+    // 节点所属实例在构建时组列表中的下标
+    private final int[] ownerIndexes;
+
+    private ConsistentHashRing(long[] points, ServerConfig[] owners, int[] ownerIndexes) {
+        this.points = points;
+        this.owners = owners;
+        this.ownerIndexes = ownerIndexes;
+    }
+
+    public static ConsistentHashRing build(List<ServerConfig> group) {
+        return build(group, VIRTUAL_NODES);
+    }
+
+    public static ConsistentHashRing build(List<ServerConfig> group, int virtualNodes) {
+        int total = 0;
+        int[] replicas = new int[group.size()];
+        for (int i = 0; i < replicas.length; i++) {
+            // 权重为 0 的实例不上环
+            replicas[i] = (int) Math.round(virtualNodes * Math.max(group.get(i).getWeight(), 0));
+            total += replicas[i];
+        }
+        long[] hashes = new long[total];
+        int[] ownerIndex = new int[total];
+        int n = 0;
+        for (int i = 0; i < replicas.length; i++) {
+            int serverId = group.get(i).getServerId();
+            for (int v = 0; v < replicas[i]; v++) {
+                hashes[n] = mix(((long) serverId << 32) | v);
+                ownerIndex[n++] = i;
+            }
+        }
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        long[] points = new long[total];
+        ServerConfig[] owners = new ServerConfig[total];
+        int[] ownerIndexes = new int[total];
+        for (int i = 0; i < total; i++) {
+            points[i] = hashes[order[i]];
+            ownerIndexes[i] = ownerIndex[order[i]];
+            owners[i] = group.get(ownerIndexes[i]);
+        }
+        return new ConsistentHashRing(points, owners, ownerIndexes);
+    }
+
+    /**
+     * splitmix64 终结函数，userId 连续时也能均匀分布
+     */
+    static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * key 所属实例，环为空返回 null
+     */
+    public ServerConfig select(long key) {
+        return points.length == 0 ? null : owners[node(key)];
+    }
+
+    /**
+     * key 所属实例在构建时组列表中的下标，环为空返回 -1
+     * 成员、顺序和权重相同的新组列表可以复用本环，按下标取新列表中的实例
+     */
+    public int selectIndex(long key) {
+        return points.length == 0 ? -1 : ownerIndexes[node(key)];
+    }
+
+    private int node(long key) {
+        long hash = mix(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // 超过最后一个节点回到环首
+        return low == points.length ? 0 : low;
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    /**
+     * 抽样 key 0..samples-1，统计两个环上归属实例不同的比例
+     */
+    public double movedFraction(ConsistentHashRing other, int samples) {
+        int moved = 0;
+        for (int key = 0; key < samples; key++) {
+            ServerConfig a = select(key);
+            ServerConfig b = other.select(key);
+            if (a == null || b == null || a.getServerId() != b.getServerId()) {
+                moved++;
+            }
+        }
+        return samples == 0 ? 0 : (double) moved / samples;
+    }
+}
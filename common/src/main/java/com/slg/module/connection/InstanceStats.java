@@ -0,0 +1,119 @@
+package com.slg.module.connection;
+
+import io.netty.util.collection.IntObjectHashMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实例转发统计（按 serverId 一份，实例下线后保留，重新上线继续使用）
+ * 发出请求时调用 onStart，收到回包或失败时调用 onComplete，等不到回包的调用 onAbandoned
+ * 数据来源：ServerRpcClient 的请求，以及 ServerConnectionPool.forward 转发的玩家请求（回包由 onForwardReply 匹配）
+ * 1，inFlight：未完成请求数，供最少连接类负载均衡使用
+ * 2，ewmaNanos：随时间衰减的延迟均值，最近的样本权重大，长时间无样本时旧值逐渐失效
+ * 3，breaker：实例熔断，每个完成的请求同时喂给熔断器
+ */
+public final class InstanceStats {
+    // 衰减时间常数，-Dserver.stats.ewma.tau（毫秒），默认 10 秒
+    static final long TAU_NANOS = Long.getLong("server.stats.ewma.tau", 10_000L) * 1_000_000L;
+    // 读多写少，写时复制整张表，读无锁
+    private static volatile IntObjectHashMap<InstanceStats> stats = new IntObjectHashMap<>();
+
+    private final int serverId;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile double ewmaNanos;
+    private volatile long lastSampleNanos = System.nanoTime();
+    private final CircuitBreaker breaker;
+
+    private InstanceStats(int serverId) {
+        this.serverId = serverId;
+        this.breaker = new CircuitBreaker(serverId);
+    }
+
+    public static InstanceStats of(int serverId) {
+        InstanceStats result = stats.get(serverId);
+        if (result != null) {
+            return result;
+        }
+        synchronized (InstanceStats.class) {
+            result = stats.get(serverId);
+            if (result == null) {
+                IntObjectHashMap<InstanceStats> copy = new IntObjectHashMap<>(stats.size() * 2 + 2);
+                copy.putAll(stats);
+                result = new InstanceStats(serverId);
+                copy.put(serverId, result);
+                stats = copy;
+            }
+            return result;
+        }
+    }
+
+    public void onStart() {
+        inFlight.incrementAndGet();
+        requests.increment();
+    }
+
+    public void onComplete(long latencyNanos, boolean success) {
+        inFlight.decrementAndGet();
+        if (!success) {
+            failures.increment();
+        }
+        sample(latencyNanos);
+        breaker.record(latencyNanos, success);
+    }
+
+    /**
+     * 等不到回包的请求（转发超时清理、实例移除），只扣减未完成数，不计入失败和延迟：部分协议本身没有回包
+     */
+    public void onAbandoned(int count) {
+        if (count > 0) {
+            inFlight.addAndGet(-count);
+        }
+    }
+
+    /**
+     * 按距上次样本的时间衰减：w = e^(-Δt/τ)，ewma = ewma * w + latency * (1 - w)
+     * 并发更新可能丢失个别样本，不影响均值趋势
+     */
+    void sample(long latencyNanos) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(now - lastSampleNanos, 0);
+        lastSampleNanos = now;
+        double w = Math.exp(-(double) elapsed / TAU_NANOS);
+        double ewma = ewmaNanos;
+        // 第一个样本直接作为初值
+        ewmaNanos = ewma == 0 ? latencyNanos : ewma * w + latencyNanos * (1 - w);
+    }
+
+    public int getServerId() {
+        return serverId;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public String toString() {
+        return "InstanceStats{serverId=" + serverId + ", inFlight=" + inFlight.get() + ", requests=" + requests.sum()
+                + ", failures=" + failures.sum() + ", ewma=" + (long) (ewmaNanos / 1000) + "us, breaker=" + breaker.getState() + "}";
+    }
+}
@@ -0,0 +1,293 @@
+package com.slg.module.connection;
+
+import com.slg.module.config.ServerConfig;
+import io.netty.util.collection.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 组内实例选择策略
+ * 组为 ProtoRouteTable 中的不可变实例列表，统计数据来自 InstanceStats
+ * -Dserver.balancer 选择默认策略：wrr（默认）、p2c、ewma、hash
+ */
+public interface LoadBalancer {
+
+    /**
+     * @param group 同一协议组的实例，不可为空
+     * @param key   路由键（如 userId），不按键路由的策略忽略
+     * @return 选中的实例，组为空返回 null
+     */
+    ServerConfig select(List<ServerConfig> group, long key);
+
+    static LoadBalancer of(String name) {
+        return switch (name) {
+            case "wrr" -> new SmoothWeightedRoundRobin();
+            case "p2c" -> new PowerOfTwoChoices();
+            case "ewma" -> new PeakEwma();
+            case "hash" -> new ConsistentHash();
+            default -> throw new IllegalArgumentException("unknown load balancer: " + name);
+        };
+    }
+
+    static LoadBalancer defaultBalancer() {
+        return of(System.getProperty("server.balancer", "wrr"));
+    }
+
+    /**
+     * 权重转整数（保留两位小数），负数按 0
+     */
+    static int weightOf(ServerConfig config) {
+        return (int) Math.max(Math.round(config.getWeight() * 100), 0);
+    }
+
+    /**
+     * 平滑加权轮询（同 nginx）：每次所有实例当前权重加上自身权重，选最大者并减去总权重
+     * 权重 5:1:1 时选择序列为 a a b a c a a，不会连续集中到同一实例
+     * 轮询状态按 groupId 各一份，各自加锁，不同组互不竞争；同组的完整列表和熔断过滤后的列表共用一份状态
+     */
+    final class SmoothWeightedRoundRobin implements LoadBalancer {
+        // 写时复制，读无锁
+        private volatile IntObjectHashMap<GroupState> states = new IntObjectHashMap<>();
+
+        @Override
+        public ServerConfig select(List<ServerConfig> group, long key) {
+            int size = group.size();
+            if (size <= 1) {
+                return size == 0 ? null : group.get(0);
+            }
+            int groupId = group.get(0).getGroupId();
+            GroupState state = states.get(groupId);
+            if (state == null) {
+                state = state(groupId);
+            }
+            return state.select(group);
+        }
+
+        private synchronized GroupState state(int groupId) {
+            GroupState state = states.get(groupId);
+            if (state == null) {
+                IntObjectHashMap<GroupState> copy = new IntObjectHashMap<>(states.size() * 2 + 2);
+                copy.putAll(states);
+                state = new GroupState();
+                copy.put(groupId, state);
+                states = copy;
+            }
+            return state;
+        }
+
+        private static final class GroupState {
+            // serverId -> 当前权重，只在持有 this 锁时读写
+            private final IntObjectHashMap<long[]> currentWeights = new IntObjectHashMap<>();
+
+            synchronized ServerConfig select(List<ServerConfig> group) {
+                ServerConfig best = null;
+                long[] bestWeight = null;
+                long total = 0;
+                for (int i = 0, size = group.size(); i < size; i++) {
+                    ServerConfig config = group.get(i);
+                    long[] current = currentWeights.get(config.getServerId());
+                    if (current == null) {
+                        current = new long[1];
+                        currentWeights.put(config.getServerId(), current);
+                    }
+                    int weight = weightOf(config);
+                    current[0] += weight;
+                    total += weight;
+                    if (bestWeight == null || current[0] > bestWeight[0]) {
+                        best = config;
+                        bestWeight = current;
+                    }
+                }
+                bestWeight[0] -= total;
+                return best;
+            }
+        }
+    }
+
+    /**
+     * 随机取两个实例，选未完成请求数（按权重折算）较少的一个
+     * 比全局最少连接更不容易让所有网关同时涌向同一个刚空闲的实例
+     */
+    final class PowerOfTwoChoices implements LoadBalancer {
+        @Override
+        public ServerConfig select(List<ServerConfig> group, long key) {
+            int size = group.size();
+            if (size <= 1) {
+                return size == 0 ? null : group.get(0);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int a = random.nextInt(size);
+            int b = random.nextInt(size - 1);
+            if (b >= a) {
+                b++;
+            }
+            ServerConfig first = group.get(a);
+            ServerConfig second = group.get(b);
+            return load(second) < load(first) ? second : first;
+        }
+
+        private static double load(ServerConfig config) {
+            return (InstanceStats.of(config.getServerId()).getInFlight() + 1) / (double) Math.max(weightOf(config), 1);
+        }
+    }
+
+    /**
+     * 延迟感知：两选一，代价 = 衰减延迟均值 * (未完成请求数 + 1) / 权重
+     * 变慢的实例代价升高后自动少分流量，恢复后随衰减回到正常比例
+     */
+    final class PeakEwma implements LoadBalancer {
+        @Override
+        public ServerConfig select(List<ServerConfig> group, long key) {
+            int size = group.size();
+            if (size <= 1) {
+                return size == 0 ? null : group.get(0);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int a = random.nextInt(size);
+            int b = random.nextInt(size - 1);
+            if (b >= a) {
+                b++;
+            }
+            ServerConfig first = group.get(a);
+            ServerConfig second = group.get(b);
+            return cost(second) < cost(first) ? second : first;
+        }
+
+        private static double cost(ServerConfig config) {
+            InstanceStats stats = InstanceStats.of(config.getServerId());
+            // 无样本的新实例按 1ms 估算，避免代价为 0 时集中涌入
+            double latency = stats.getEwmaNanos() == 0 ? 1_000_000 : stats.getEwmaNanos();
+            return latency * (stats.getInFlight() + 1) / Math.max(weightOf(config), 1);
+        }
+    }
+
+    /**
+     * 按 key（userId）一致性哈希，同一玩家稳定落在组内同一实例，玩家状态和缓存留在该实例
+     * 环按组列表身份缓存，每个 groupId 保留最近 MAX_RINGS 个列表（完整组、熔断过滤后的组、不同协议区间的组），互不挤占
+     * 拓扑重建产生的新列表与已有列表成员、顺序、权重相同时直接复用旧环，不重新构建
+     * 构建在锁外进行，只有发布时短暂加锁；迁移比例不在选择路径上计算，见 getLastMovedFraction
+     */
+    final class ConsistentHash implements LoadBalancer {
+        static final int MOVE_SAMPLES = 10000;
+        static final int MAX_RINGS = 8;
+
+        // groupId -> 环（最近使用的在前），写时复制，读无锁
+        private volatile IntObjectHashMap<Ring[]> rings = new IntObjectHashMap<>();
+        private volatile int rebuildCount;
+        // 最近一次成员变化的新旧环，迁移比例按需计算
+        private volatile ConsistentHashRing lastOld;
+        private volatile ConsistentHashRing lastNew;
+
+        private static final class Ring {
+            final List<ServerConfig> group;
+            final ConsistentHashRing ring;
+
+            Ring(List<ServerConfig> group, ConsistentHashRing ring) {
+                this.group = group;
+                this.ring = ring;
+            }
+        }
+
+        @Override
+        public ServerConfig select(List<ServerConfig> group, long key) {
+            int size = group.size();
+            if (size <= 1) {
+                return size == 0 ? null : group.get(0);
+            }
+            int groupId = group.get(0).getGroupId();
+            Ring[] candidates = rings.get(groupId);
+            if (candidates != null) {
+                for (Ring ring : candidates) {
+                    if (ring.group == group) {
+                        int index = ring.ring.selectIndex(key);
+                        return index < 0 ? null : group.get(index);
+                    }
+                }
+            }
+            int index = install(groupId, group).ring.selectIndex(key);
+            return index < 0 ? null : group.get(index);
+        }
+
+        private Ring install(int groupId, List<ServerConfig> group) {
+            Ring[] candidates = rings.get(groupId);
+            Ring same = null;
+            Ring previous = null;
+            if (candidates != null) {
+                for (Ring ring : candidates) {
+                    if (sameMembers(ring.group, group)) {
+                        same = ring;
+                        break;
+                    }
+                }
+                previous = candidates[0];
+            }
+            // 成员未变（只是拓扑快照替换）复用旧环，否则在锁外构建
+            ConsistentHashRing built = same != null ? same.ring : ConsistentHashRing.build(group);
+            Ring ring = new Ring(group, built);
+            synchronized (this) {
+                Ring[] current = rings.get(groupId);
+                List<Ring> next = new ArrayList<>(MAX_RINGS);
+                next.add(ring);
+                if (current != null) {
+                    for (Ring exist : current) {
+                        if (exist.group == group) {
+                            // 并发安装了同一列表
+                            return exist;
+                        }
+                        if (next.size() < MAX_RINGS && !sameMembers(exist.group, group)) {
+                            next.add(exist);
+                        }
+                    }
+                }
+                IntObjectHashMap<Ring[]> copy = new IntObjectHashMap<>(rings.size() * 2 + 2);
+                copy.putAll(rings);
+                copy.put(groupId, next.toArray(new Ring[0]));
+                rings = copy;
+                if (same == null) {
+                    rebuildCount++;
+                    if (previous != null) {
+                        lastOld = previous.ring;
+                        lastNew = built;
+                    }
+                }
+            }
+            return ring;
+        }
+
+        /**
+         * 成员、顺序和权重都相同，环上节点位置一致
+         */
+        static boolean sameMembers(List<ServerConfig> a, List<ServerConfig> b) {
+            int size = a.size();
+            if (size != b.size()) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                ServerConfig x = a.get(i);
+                ServerConfig y = b.get(i);
+                if (x.getServerId() != y.getServerId() || x.getWeight() != y.getWeight()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 实际构建环的次数（复用旧环不计）
+         */
+        public int getRebuildCount() {
+            return rebuildCount;
+        }
+
+        /**
+         * 最近一次成员变化的用户迁移比例（抽样 MOVE_SAMPLES 个 key，调用时计算）
+         */
+        public double getLastMovedFraction() {
+            ConsistentHashRing old = lastOld;
+            ConsistentHashRing current = lastNew;
+            return old == null || current == null ? 0 : current.movedFraction(old, MOVE_SAMPLES);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.slg.module.connection;
+
+import com.slg.module.config.ServerConfig;
+
+import java.util.*;
+
+/**
+ * 协议号路由表（每次实例刷新重建，之后只读，可无锁并发查询）
+ * 1，每个实例的每段协议区间单独参与路由，同一 groupId 声明了完全相同区间的实例互为备份
+ * 2，所有区间展开为互不重叠的段，重叠部分由更具体（更窄）的区间负责，可把热点协议拆到专门的实例而不改协议号（同组、不同组都可以）
+ * 每段的候选只包含声明了该区间的实例，如同组 s1 负责 0-999、s2 负责 1000-1999 时，500 只会路由到 s1
+ * 3，区间按起点排序，查询二分查找，O(log n)
+ * 4，协议号跨度不超过 DENSE_LIMIT 时额外建直接索引数组，查询 O(1)
+ * 查询不装箱、不分配对象
+ */
+public final class ProtoRouteTable {
+    static final int DENSE_LIMIT = 1 << 16;
+    public static final ProtoRouteTable EMPTY = new ProtoRouteTable(new int[0], new int[0], new int[0], Collections.emptyList(), new int[0], null, 0);
+
+    // 区间 [starts[i], ends[i]] 由 groups[groupIndexes[i]] 负责，候选相同的段共用组
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] groupIndexes;
+    private final List<List<ServerConfig>> groups;
+    private final int[] groupIds;
+    // 直接索引：dense[protoId - denseBase] = 组下标 + 1，0 表示无
+    private final int[] dense;
+    private final int denseBase;
+
+    private ProtoRouteTable(int[] starts, int[] ends, int[] groupIndexes, List<List<ServerConfig>> groups,
+                            int[] groupIds, int[] dense, int denseBase) {
+        this.starts = starts;
+        this.ends = ends;
+        this.groupIndexes = groupIndexes;
+        this.groups = groups;
+        this.groupIds = groupIds;
+        this.dense = dense;
+        this.denseBase = denseBase;
+    }
+
+    public static ProtoRouteTable build(Collection<ServerConfig> servers) {
+        // 每个实例的每段区间按 (起点, 终点, groupId) 归并，同一段的实例互为备份
+        Map<List<Integer>, Piece> byPiece = new HashMap<>();
+        List<Piece> pieces = new ArrayList<>();
+        for (ServerConfig server : servers) {
+            List<int[]> serverRanges = new ArrayList<>();
+            int[] pairs = server.getProtoRanges();
+            for (int k = 0; k + 1 < pairs.length; k += 2) {
+                if (pairs[k] <= pairs[k + 1]) {
+                    serverRanges.add(new int[]{pairs[k], pairs[k + 1]});
+                }
+            }
+            if (serverRanges.isEmpty()) {
+                continue;
+            }
+            int[] merged = ServerTopology.mergeRanges(serverRanges);
+            for (int k = 0; k < merged.length; k += 2) {
+                Piece piece = byPiece.get(List.of(merged[k], merged[k + 1], server.getGroupId()));
+                if (piece == null) {
+                    piece = new Piece(merged[k], merged[k + 1], server.getGroupId());
+                    byPiece.put(List.of(merged[k], merged[k + 1], server.getGroupId()), piece);
+                    pieces.add(piece);
+                }
+                piece.servers.add(server);
+            }
+        }
+        if (pieces.isEmpty()) {
+            return EMPTY;
+        }
+        List<int[]> segments = flatten(pieces);
+        // 候选实例相同的段共用一个组列表（按 serverId 排序），列表身份稳定，负载均衡状态按组复用
+        Map<List<Integer>, Integer> groupIndexOf = new HashMap<>();
+        List<List<ServerConfig>> groups = new ArrayList<>();
+        List<Integer> groupIdList = new ArrayList<>();
+        int size = segments.size();
+        int[] starts = new int[size];
+        int[] ends = new int[size];
+        int[] groupIndexes = new int[size];
+        int n = 0;
+        for (int[] segment : segments) {
+            Piece piece = pieces.get(segment[2]);
+            List<ServerConfig> candidates = new ArrayList<>(piece.servers);
+            candidates.sort(Comparator.comparingInt(ServerConfig::getServerId));
+            List<Integer> key = new ArrayList<>(candidates.size() + 1);
+            key.add(piece.groupId);
+            for (ServerConfig server : candidates) {
+                key.add(server.getServerId());
+            }
+            Integer index = groupIndexOf.get(key);
+            if (index == null) {
+                index = groups.size();
+                groupIndexOf.put(key, index);
+                groups.add(List.copyOf(candidates));
+                groupIdList.add(piece.groupId);
+            }
+            // 相邻且候选相同的段合并
+            if (n > 0 && groupIndexes[n - 1] == index && (long) ends[n - 1] + 1 == segment[0]) {
+                ends[n - 1] = segment[1];
+                continue;
+            }
+            starts[n] = segment[0];
+            ends[n] = segment[1];
+            groupIndexes[n++] = index;
+        }
+        starts = Arrays.copyOf(starts, n);
+        ends = Arrays.copyOf(ends, n);
+        groupIndexes = Arrays.copyOf(groupIndexes, n);
+        int[] groupIds = new int[groupIdList.size()];
+        for (int i = 0; i < groupIds.length; i++) {
+            groupIds[i] = groupIdList.get(i);
+        }
+        int[] dense = null;
+        int denseBase = 0;
+        long span = n == 0 ? Long.MAX_VALUE : (long) ends[n - 1] - starts[0] + 1;
+        if (span <= DENSE_LIMIT) {
+            denseBase = starts[0];
+            dense = new int[(int) span];
+            for (int i = 0; i < n; i++) {
+                Arrays.fill(dense, starts[i] - denseBase, ends[i] - denseBase + 1, groupIndexes[i] + 1);
+            }
+        }
+        return new ProtoRouteTable(starts, ends, groupIndexes, Collections.unmodifiableList(groups), groupIds, dense, denseBase);
+    }
+
+    /**
+     * 一段区间及声明了它的实例（同一 groupId）
+     */
+    private static final class Piece {
+        final int start;
+        final int end;
+        final int groupId;
+        final List<ServerConfig> servers = new ArrayList<>();
+
+        Piece(int start, int end, int groupId) {
+            this.start = start;
+            this.end = end;
+            this.groupId = groupId;
+        }
+    }
+
+    /**
+     * 重叠区间展开为不重叠的段：按所有端点切段，每段取覆盖它的最窄区间（同宽取起点大者，再同取 groupId 小者）
+     * 扫描时维护当前覆盖的区间集合，每段只比较覆盖它的区间
+     *
+     * @return {起点, 终点, 区间下标}
+     */
+    private static List<int[]> flatten(List<Piece> pieces) {
+        TreeSet<Long> points = new TreeSet<>();
+        for (Piece piece : pieces) {
+            points.add((long) piece.start);
+            points.add((long) piece.end + 1);
+        }
+        Integer[] order = new Integer[pieces.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> pieces.get(i).start));
+        List<int[]> segments = new ArrayList<>();
+        List<Piece> active = new ArrayList<>();
+        List<Integer> activeIndexes = new ArrayList<>();
+        int nextPiece = 0;
+        boolean conflict = false;
+        Long[] sorted = points.toArray(new Long[0]);
+        for (int p = 0; p + 1 < sorted.length; p++) {
+            long from = sorted[p];
+            long to = sorted[p + 1] - 1;
+            while (nextPiece < order.length && pieces.get(order[nextPiece]).start == from) {
+                active.add(pieces.get(order[nextPiece]));
+                activeIndexes.add(order[nextPiece++]);
+            }
+            for (int i = active.size() - 1; i >= 0; i--) {
+                if (active.get(i).end < from) {
+                    active.remove(i);
+                    activeIndexes.remove(i);
+                }
+            }
+            int winner = -1;
+            for (int i = 0; i < active.size(); i++) {
+                if (winner >= 0 && sameRange(active.get(i), active.get(winner))) {
+                    conflict = true;
+                }
+                if (winner < 0 || morePrecise(active.get(i), active.get(winner))) {
+                    winner = i;
+                }
+            }
+            if (winner >= 0) {
+                segments.add(new int[]{(int) from, (int) to, activeIndexes.get(winner)});
+            }
+        }
+        if (conflict) {
+            System.err.println("协议区间冲突: 不同组声明了相同的区间, 按 groupId 小者路由");
+        }
+        return segments;
+    }
+
+    private static boolean sameRange(Piece a, Piece b) {
+        return a.start == b.start && a.end == b.end;
+    }
+
+    private static boolean morePrecise(Piece a, Piece b) {
+        long widthA = (long) a.end - a.start;
+        long widthB = (long) b.end - b.start;
+        if (widthA != widthB) {
+            return widthA < widthB;
+        }
+        if (a.start != b.start) {
+            return a.start > b.start;
+        }
+        return a.groupId < b.groupId;
+    }
+
+    /**
+     * 协议号对应的组下标，没有返回 -1
+     */
+    private int indexOf(int protocolId) {
+        if (dense != null) {
+            long offset = (long) protocolId - denseBase;
+            return offset < 0 || offset >= dense.length ? -1 : dense[(int) offset] - 1;
+        }
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= protocolId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // high 为最后一个起点 <= protocolId 的区间
+        return high >= 0 && protocolId <= ends[high] ? groupIndexes[high] : -1;
+    }
+
+    /**
+     * 协议号对应的 groupId，没有返回 -1
+     */
+    public int groupIdOf(int protocolId) {
+        int index = indexOf(protocolId);
+        return index < 0 ? -1 : groupIds[index];
+    }
+
+    /**
+     * 协议号对应的实例组（不可变），没有返回 null
+     */
+    public List<ServerConfig> groupOf(int protocolId) {
+        int index = indexOf(protocolId);
+        return index < 0 ? null : groups.get(index);
+    }
+
+    public List<List<ServerConfig>> getGroups() {
+        return groups;
+    }
+
+    public int rangeCount() {
+        return starts.length;
+    }
+
+    public boolean isDense() {
+        return dense != null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ProtoRouteTable{");
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(starts[i]).append('-').append(ends[i]).append("=g").append(groupIds[groupIndexes[i]]);
+        }
+        return sb.append(dense != null ? ", dense}" : "}").toString();
+    }
+}
@@ -1,120 +1,216 @@
 package com.slg.module.connection;
 
-import com.alibaba.nacos.api.exception.NacosException;
-import com.alibaba.nacos.api.naming.listener.Event;
-import com.alibaba.nacos.api.naming.listener.EventListener;
 import com.alibaba.nacos.api.naming.pojo.Instance;
-import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.slg.module.config.ConfigManager;
 import com.slg.module.config.ServerConfig;
-import com.slg.module.message.Constants;
+import com.slg.module.register.NacosServiceDiscovery;
+import com.slg.module.register.ServiceDiscovery;
 import com.slg.module.util.NacosClientUtil;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
 
-public class ServerConfigManager {
+public final class ServerConfigManager {
     private static volatile ServerConfigManager instance;
-    NacosClientUtil client = NacosClientUtil.getAlreadyInstance();
-    private HashMap<String, ServerConfig> serverConfigMap = new HashMap<>();//所有可能的健康的实例
-    //有序从小到大排序
-    private List<List<ServerConfig>> serverConfigList = new ArrayList<>();
+    //节点配置，内容变更时触发游戏配置重载
+    public static final String NODE_CONFIG = "node.properties";
+    //服务发现，线上为 Nacos，离线压测可用 LocalServiceDiscovery
+    private final ServiceDiscovery discovery;
+    //服务分组，节点配置也在此分组下
+    private final String groupName;
+    //当前健康实例及路由表的不可变快照，每次刷新整体替换
+    private volatile ServerTopology topology = ServerTopology.EMPTY;
+    private final List<ServerTopology.Listener> topologyListeners = new CopyOnWriteArrayList<>();
+    //组内实例选择策略
+    private volatile LoadBalancer loadBalancer = LoadBalancer.defaultBalancer();
 
-    private HashMap<Integer, Integer> protoGroupMap = new HashMap<>();//protoId-groupId
+    //实例变更合并：最后一次事件后静默 quiet 毫秒再重建，首个事件起最多等待 maxDelay 毫秒，quiet 为 0 时立即重建
+    private final long rebuildQuietMillis = Long.getLong("server.topology.quiet", 200L);
+    private final long rebuildMaxDelayMillis = Long.getLong("server.topology.maxDelay", 2000L);
+    private final ScheduledExecutorService rebuildExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "server-topology-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private List<Instance> pendingInstances;
+    private String pendingExcludeInstanceId;
+    private long firstPendingMillis;
+    private int pendingEvents;
+    private ScheduledFuture<?> pendingRebuild;
+    //重建统计
+    private final LongAdder eventCount = new LongAdder();
+    private long rebuildCount;
+    private long lastRebuildNanos;
+    private long maxRebuildNanos;
+    private long totalRebuildNanos;
 
-    private ServerConfigManager(String serviceName, String groupName, String configName, String excludeInstanceId) {
-        this.init(serviceName, groupName, configName, excludeInstanceId);
+    private ServerConfigManager(ServiceDiscovery discovery, String groupName) {
+        this.discovery = discovery;
+        this.groupName = groupName;
+    }
+
+    /**
+     * 使用指定的服务发现创建（不注册为单例），用于离线压测和基准测试
+     * 构造完成后再订阅实例变更，监听回调不会看到未初始化完的对象
+     */
+    public static ServerConfigManager create(ServiceDiscovery discovery, String serviceName, String groupName, String configName, String excludeInstanceId) {
+        ServerConfigManager manager = new ServerConfigManager(discovery, groupName);
+        manager.addTopologyListener(CircuitBreaker::onTopologyChanged);
+        manager.init(serviceName, groupName, configName, excludeInstanceId);
+        return manager;
     }
 
     //初始化
     private void init(String serviceName, String groupName, String configName, String excludeInstanceId) {
         try {
             if (configName != null) {
-                String config = client.getConfig(
+                String config = discovery.getConfig(
                         configName,  // 配置ID node.properties
                         groupName,         // 配置组
                         5000                     // 超时时间(ms)
                 );
             }
-            refreshServerInstances(client.getAllInstances(serviceName, groupName), excludeInstanceId);
+            refreshServerInstances(discovery.getAllInstances(serviceName, groupName), excludeInstanceId);
             // 监听服务实例状态
-            client.listenServiceStatus(serviceName, groupName, new EventListener() {
-                @Override
-                public void onEvent(Event event) {
-                    if (event instanceof NamingEvent) {
-                        NamingEvent changeEvent = (NamingEvent) event;
-                        System.out.println("服务实例变更: " + changeEvent.getServiceName());
-                        List<Instance> instances = changeEvent.getInstances();
-                        // 处理实例状态变化
-                        refreshServerInstances(instances, excludeInstanceId);
-
-                    }
-                }
-            });
-
-            //配置变更
-            client.addListener(
-                    "node.properties",  // 配置ID
-                    groupName,         // 配置组
-                    new NacosClientUtil.SimpleListener() {
-                        @Override
-                        public void onConfigChanged(String configInfo) {
-                            System.out.println("配置已更新: " + configInfo);
-                            // TODO: 处理配置变更（如重新加载配置）
-
-                        }
-                    });
-
-        } catch (NacosException var3) {
-            throw new RuntimeException("初始化Nacos客户端失败", var3);
+            discovery.subscribe(serviceName, groupName, instances -> onInstancesChanged(instances, excludeInstanceId));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("初始化服务发现失败", e);
         }
     }
 
-    public void refreshServerInstances(List<Instance> allInstances, String excludeInstanceId) {
-        for (Instance allInstance : allInstances) {
-            // 排除当前实例
-            if (allInstance.getInstanceId().equals(excludeInstanceId)) {
-                System.out.println("跳过当前实例: " + allInstance.getInstanceId());
-                continue;
+    /**
+     * 实例变更事件（每次为完整列表），滚动发布期间的连续事件合并为一次重建，只用最后一次的列表
+     */
+    public void onInstancesChanged(List<Instance> instances, String excludeInstanceId) {
+        eventCount.increment();
+        if (rebuildQuietMillis <= 0) {
+            refreshServerInstances(instances, excludeInstanceId, 1);
+            return;
+        }
+        synchronized (rebuildExecutor) {
+            long now = System.currentTimeMillis();
+            pendingInstances = instances;
+            pendingExcludeInstanceId = excludeInstanceId;
+            pendingEvents++;
+            if (firstPendingMillis == 0) {
+                firstPendingMillis = now;
             }
-            if (!allInstance.isHealthy()) {
-                continue;
+            if (pendingRebuild != null) {
+                pendingRebuild.cancel(false);
             }
-            Map<String, String> metadata = allInstance.getMetadata();
-            ServerConfig serverConfig = new ServerConfig();
-            String instanceId = allInstance.getInstanceId();
-            int protoMaxId = Integer.parseInt(metadata.get(Constants.ProtoMaxId));
-            int protoMixId = Integer.parseInt(metadata.get(Constants.ProtoMinId));
-            int groupId = Integer.parseInt(metadata.get(Constants.GroupId));
-            serverConfig.setServerId(Integer.parseInt(instanceId));
-            serverConfig.setMaxProtoId(protoMaxId);
-            serverConfig.setMinProtoId(protoMixId);
-            serverConfig.setGroupId(groupId);
-            serverConfig.setPort(allInstance.getPort());
-            serverConfig.setHost(allInstance.getIp());
-            serverConfigMap.put(instanceId, serverConfig);
+            long delay = Math.max(Math.min(rebuildQuietMillis, firstPendingMillis + rebuildMaxDelayMillis - now), 0);
+            pendingRebuild = rebuildExecutor.schedule(this::rebuildPending, delay, TimeUnit.MILLISECONDS);
         }
-        //排序
-        // 执行排序和分组操作
-        serverConfigList = sortAndGroupByMinProtoId(serverConfigMap);
-        for (List<ServerConfig> serverConfigs : serverConfigList) {
-            for (ServerConfig serverConfig : serverConfigs) {
-                int groupId = serverConfig.getGroupId();
-                int minProtoId = serverConfig.getMinProtoId();
-                int maxProtoId = serverConfig.getMaxProtoId();
-                for (int i = minProtoId; i <= maxProtoId; i++) {
-                    protoGroupMap.put(i,groupId);
-                }
+    }
+
+    private void rebuildPending() {
+        List<Instance> instances;
+        String excludeInstanceId;
+        int events;
+        synchronized (rebuildExecutor) {
+            instances = pendingInstances;
+            excludeInstanceId = pendingExcludeInstanceId;
+            events = pendingEvents;
+            pendingInstances = null;
+            pendingEvents = 0;
+            firstPendingMillis = 0;
+            pendingRebuild = null;
+        }
+        if (instances != null) {
+            refreshServerInstances(instances, excludeInstanceId, events);
+        }
+    }
+
+    /**
+     * 用完整实例列表重建拓扑快照并发布，串行执行，读线程始终看到完整的旧快照或新快照
+     */
+    public void refreshServerInstances(List<Instance> allInstances, String excludeInstanceId) {
+        refreshServerInstances(allInstances, excludeInstanceId, 1);
+    }
+
+    private synchronized void refreshServerInstances(List<Instance> allInstances, String excludeInstanceId, int events) {
+        long start = System.nanoTime();
+        ServerTopology old = topology;
+        ServerTopology current = ServerTopology.build(old.getVersion() + 1, allInstances, excludeInstanceId);
+        ServerTopology.Diff diff = current.diff(old);
+        topology = current;
+        long cost = System.nanoTime() - start;
+        rebuildCount++;
+        lastRebuildNanos = cost;
+        maxRebuildNanos = Math.max(maxRebuildNanos, cost);
+        totalRebuildNanos += cost;
+        if (diff.isEmpty()) {
+            return;
+        }
+        System.out.println("服务拓扑变更 v" + current.getVersion() + ", 实例数: " + current.size() + ", 合并事件: " + events
+                + ", 耗时: " + cost / 1000 + "us, " + diff);
+        for (ServerTopology.Listener listener : topologyListeners) {
+            try {
+                listener.onTopologyChanged(old, current, diff);
+            } catch (Exception e) {
+                e.printStackTrace();
             }
         }
     }
 
+    /**
+     * 节点配置（node.properties）变更时重载游戏配置（ConfigManager.reloadAsync，合并短时间内的多次变更）
+     */
+    public void listenConfigReload(ConfigManager configManager) {
+        configManager.listenConfig(discovery, NODE_CONFIG, groupName);
+    }
+
+    public void addTopologyListener(ServerTopology.Listener listener) {
+        topologyListeners.add(listener);
+    }
+
+    public void removeTopologyListener(ServerTopology.Listener listener) {
+        topologyListeners.remove(listener);
+    }
+
+    public ServerTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * 收到的实例变更事件数
+     */
+    public long getEventCount() {
+        return eventCount.sum();
+    }
+
+    public synchronized long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    public synchronized long getLastRebuildNanos() {
+        return lastRebuildNanos;
+    }
+
+    public synchronized long getMaxRebuildNanos() {
+        return maxRebuildNanos;
+    }
+
+    public synchronized String rebuildReport() {
+        return "server topology rebuild: events " + eventCount.sum() + ", rebuilds " + rebuildCount
+                + ", avg " + (rebuildCount == 0 ? 0 : totalRebuildNanos / rebuildCount / 1000) + "us"
+                + ", max " + maxRebuildNanos / 1000 + "us, last " + lastRebuildNanos / 1000 + "us";
+    }
+
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
 
     public static ServerConfigManager getInstance(String serviceName, String groupName, String configName, String
             excludeInstanceId) {
         if (instance == null) {
             synchronized (NacosClientUtil.class) {
                 if (instance == null) {
-                    instance = new ServerConfigManager(serviceName, groupName, configName, excludeInstanceId);
+                    instance = create(new NacosServiceDiscovery(NacosClientUtil.getAlreadyInstance()),
+                            serviceName, groupName, configName, excludeInstanceId);
                 }
             }
         }
@@ -164,22 +260,37 @@ public class ServerConfigManager {
         return result;
     }
 
-    // 找到一组相同类型的实例
+    // 协议号对应的 groupId，没有返回 null
     public Integer getGroupId(int protocolId) {
-        return protoGroupMap.getOrDefault(protocolId,null);
+        int groupId = topology.getRouteTable().groupIdOf(protocolId);
+        return groupId < 0 ? null : groupId;
+    }
+
+    // 协议号对应的 groupId，没有返回 -1（不装箱）
+    public int groupIdOf(int protocolId) {
+        return topology.getRouteTable().groupIdOf(protocolId);
     }
 
-    // 找到一组相同类型的实例
+    // 找到一组相同类型的实例（不可变列表），没有返回 null
     public List<ServerConfig> getChannelKey(int protocolId) {
-        for (List<ServerConfig> serverConfigs : serverConfigList) {
-            for (ServerConfig serverConfig : serverConfigs) {
-                if (protocolId > serverConfig.getMaxProtoId()) {
-                    break;
-                } else {//找到目标
-                    return serverConfigs;
-                }
-            }
+        return topology.getRouteTable().groupOf(protocolId);
+    }
+
+    // 按协议号找到实例组，熔断探测中的实例有名额时先放行探测请求，否则由负载均衡策略在可路由实例中选出一个，没有返回 null
+    public ServerConfig selectServer(int protocolId, long key) {
+        List<ServerConfig> group = topology.getRouteTable().groupOf(protocolId);
+        if (group == null) {
+            return null;
         }
-        return null;
+        ServerConfig probe = CircuitBreaker.probe(group);
+        return probe != null ? probe : loadBalancer.select(CircuitBreaker.routable(group), key);
+    }
+
+    public void setLoadBalancer(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    public ProtoRouteTable getRouteTable() {
+        return topology.getRouteTable();
     }
 }
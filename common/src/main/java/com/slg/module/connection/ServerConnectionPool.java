@@ -0,0 +1,339 @@
+package com.slg.module.connection;
+
+import com.slg.module.config.ServerConfig;
+import com.slg.module.message.MsgUtil;
+import com.slg.module.util.LongLongConcurrentMap;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.collection.IntObjectHashMap;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 到其他服务器的连接池（按 serverId，每个实例 N 条长连接，-Dserver.pool.channels，默认 4）
+ * 1，所有玩家的消息复用少量长连接，写入时在该实例的活跃连接间轮询，分散到不同 EventLoop
+ * 2，连接断开或连接失败后按指数退避重连（100ms 起，最长 5s），实例移除后不再重连
+ * 3，生命周期跟随拓扑快照：新增实例建连，移除实例关闭，地址变化重建，其他变化只替换 ServerConfig
+ * 4，forward 转发的玩家请求（cid 不为 0）记录到 InstanceStats，回包由 onForwardReply 按 (cid, userId) 匹配得到延迟，
+ * 超过 -Dserver.pool.forwardTimeout 毫秒（默认 10s）没有回包的不再等待，供 p2c、ewma 负载均衡和熔断使用
+ * Bootstrap 由使用方配置好 group、channel 类型和编解码 pipeline
+ */
+public final class ServerConnectionPool implements ServerTopology.Listener {
+    static final int DEFAULT_CHANNELS = Integer.getInteger("server.pool.channels", 4);
+    static final long MIN_BACKOFF_MILLIS = 100;
+    static final long MAX_BACKOFF_MILLIS = 5000;
+    static final long FORWARD_TIMEOUT_MILLIS = Long.getLong("server.pool.forwardTimeout", 10_000L);
+    // 等待回包表的清理间隔
+    static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final Bootstrap bootstrap;
+    private final int channelsPerServer;
+    // 写时复制，读无锁
+    private volatile IntObjectHashMap<ServerChannels> servers = new IntObjectHashMap<>();
+    private volatile boolean closed;
+
+    public ServerConnectionPool(Bootstrap bootstrap) {
+        this(bootstrap, DEFAULT_CHANNELS);
+    }
+
+    public ServerConnectionPool(Bootstrap bootstrap, int channelsPerServer) {
+        if (channelsPerServer <= 0) {
+            throw new IllegalArgumentException("channelsPerServer must be positive: " + channelsPerServer);
+        }
+        this.bootstrap = bootstrap;
+        this.channelsPerServer = channelsPerServer;
+    }
+
+    /**
+     * 监听拓扑变化并按当前拓扑建连
+     */
+    public void attach(ServerConfigManager manager) {
+        manager.addTopologyListener(this);
+        sync(manager.getTopology());
+    }
+
+    @Override
+    public void onTopologyChanged(ServerTopology old, ServerTopology current, ServerTopology.Diff diff) {
+        sync(current);
+    }
+
+    /**
+     * 以快照为准调整连接，可重复调用
+     */
+    public synchronized void sync(ServerTopology topology) {
+        if (closed) {
+            return;
+        }
+        IntObjectHashMap<ServerChannels> current = servers;
+        IntObjectHashMap<ServerChannels> next = new IntObjectHashMap<>(topology.size() * 2 + 2);
+        for (ServerConfig config : topology.getServers().values()) {
+            ServerChannels exist = current.get(config.getServerId());
+            if (exist != null && exist.sameAddress(config)) {
+                exist.config = config;
+                next.put(config.getServerId(), exist);
+            } else {
+                ServerChannels created = new ServerChannels(config);
+                next.put(config.getServerId(), created);
+                created.connectAll();
+            }
+        }
+        for (ServerChannels exist : current.values()) {
+            if (next.get(exist.serverId) != exist) {
+                exist.close();
+            }
+        }
+        servers = next;
+    }
+
+    /**
+     * 实例的一条可用连接（轮询，优先可写的连接），没有返回 null
+     */
+    public Channel channel(int serverId) {
+        ServerChannels server = servers.get(serverId);
+        return server == null ? null : server.select();
+    }
+
+    /**
+     * 写入已编码的消息，没有可用连接时释放 msg 并返回 false
+     */
+    public boolean write(int serverId, ByteBuf msg) {
+        Channel channel = channel(serverId);
+        if (channel == null) {
+            ReferenceCountUtil.release(msg);
+            return false;
+        }
+        channel.writeAndFlush(msg, channel.voidPromise());
+        return true;
+    }
+
+    /**
+     * 按服务器消息格式编码后写入，没有可用连接时释放 body 并返回 false
+     */
+    public boolean send(ServerConfig server, long userId, int cid, int errorCode, int protocolId, int zip, int encrypted, short length, ByteBuf body) {
+        Channel channel = channel(server.getServerId());
+        if (channel == null) {
+            if (body != null) {
+                ReferenceCountUtil.release(body);
+            }
+            return false;
+        }
+        ByteBuf msg = MsgUtil.buildServerMsg(channel.alloc(), userId, cid, errorCode, protocolId, zip, encrypted, length, body);
+        channel.writeAndFlush(msg, channel.voidPromise());
+        return true;
+    }
+
+    /**
+     * 转发玩家请求，cid 不为 0 时等待回包并计入实例统计；没有可用连接时释放 body、计为失败并返回 false
+     * 服务器间 RPC 用 ServerRpcClient，不要走这里，避免重复统计
+     */
+    public boolean forward(ServerConfig server, long userId, int cid, int protocolId, int zip, int encrypted, short length, ByteBuf body) {
+        ServerChannels target = servers.get(server.getServerId());
+        Channel channel = target == null ? null : target.select();
+        if (channel == null) {
+            if (body != null) {
+                ReferenceCountUtil.release(body);
+            }
+            InstanceStats stats = InstanceStats.of(server.getServerId());
+            stats.onStart();
+            stats.onComplete(0, false);
+            return false;
+        }
+        if (cid != 0) {
+            target.track(cid, userId);
+        }
+        ByteBuf msg = MsgUtil.buildServerMsg(channel.alloc(), userId, cid, 0, protocolId, zip, encrypted, length, body);
+        channel.writeAndFlush(msg, channel.voidPromise());
+        return true;
+    }
+
+    /**
+     * 收到实例的回包时调用，是 forward 发出的请求则记录延迟和结果并返回 true
+     */
+    public boolean onForwardReply(int serverId, int cid, long userId, int errorCode) {
+        ServerChannels server = servers.get(serverId);
+        if (server == null || cid == 0) {
+            return false;
+        }
+        long startNanos = server.forwarding.remove(ServerRpcClient.key(cid, userId), 0);
+        if (startNanos == 0) {
+            return false;
+        }
+        // 业务错误码说明实例正常处理了请求，只有服务端故障类错误码计入失败
+        server.stats.onComplete(System.nanoTime() - startNanos, !CircuitBreaker.isFailure(errorCode));
+        return true;
+    }
+
+    /**
+     * 至少有一条活跃连接
+     */
+    public boolean isHealthy(int serverId) {
+        return activeCount(serverId) > 0;
+    }
+
+    public int activeCount(int serverId) {
+        ServerChannels server = servers.get(serverId);
+        return server == null ? 0 : server.activeCount();
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder("server connection pool:");
+        for (ServerChannels server : servers.values()) {
+            ServerConfig config = server.config;
+            sb.append('\n').append(server.serverId).append(' ').append(config.getHost()).append(':').append(config.getPort())
+                    .append(" active: ").append(server.activeCount()).append('/').append(channelsPerServer);
+        }
+        return sb.toString();
+    }
+
+    public synchronized void close() {
+        closed = true;
+        for (ServerChannels server : servers.values()) {
+            server.close();
+        }
+        servers = new IntObjectHashMap<>();
+    }
+
+    /**
+     * 单个实例的连接组，每个槽位一条连接，断开后由该槽位自己重连
+     */
+    private final class ServerChannels {
+        final int serverId;
+        volatile ServerConfig config;
+        final AtomicReferenceArray<Channel> channels;
+        // 每个槽位连续失败次数，决定退避时长
+        final AtomicIntegerArray failures;
+        final AtomicInteger next = new AtomicInteger();
+        final InstanceStats stats;
+        // 等待回包的转发请求：(cid, userId) -> 发出时间
+        final LongLongConcurrentMap forwarding = new LongLongConcurrentMap(256, 16);
+        final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+        volatile boolean closed;
+
+        ServerChannels(ServerConfig config) {
+            this.serverId = config.getServerId();
+            this.config = config;
+            this.channels = new AtomicReferenceArray<>(channelsPerServer);
+            this.failures = new AtomicIntegerArray(channelsPerServer);
+            this.stats = InstanceStats.of(serverId);
+        }
+
+        void track(int cid, long userId) {
+            long now = System.nanoTime();
+            // 同一请求重发时沿用原来的未完成计数
+            if (forwarding.put(ServerRpcClient.key(cid, userId), now, 0) == 0) {
+                stats.onStart();
+            }
+            long last = lastSweepNanos.get();
+            if (now - last >= SWEEP_INTERVAL_NANOS && lastSweepNanos.compareAndSet(last, now)) {
+                stats.onAbandoned(forwarding.expireIdle(FORWARD_TIMEOUT_MILLIS));
+            }
+        }
+
+        boolean sameAddress(ServerConfig other) {
+            return config.getPort() == other.getPort() && Objects.equals(config.getHost(), other.getHost());
+        }
+
+        void connectAll() {
+            for (int slot = 0; slot < channelsPerServer; slot++) {
+                connect(slot);
+            }
+        }
+
+        void connect(int slot) {
+            if (closed) {
+                return;
+            }
+            ServerConfig target = config;
+            ChannelFuture connectFuture = bootstrap.connect(target.getHost(), target.getPort());
+            connectFuture.addListener((ChannelFutureListener) future -> {
+                Channel channel = future.channel();
+                if (!future.isSuccess()) {
+                    System.err.println("服务器连接失败: " + serverId + " " + target.getHost() + ":" + target.getPort() + ", " + future.cause());
+                    reconnectLater(slot, channel.eventLoop());
+                    return;
+                }
+                if (closed) {
+                    channel.close();
+                    return;
+                }
+                failures.set(slot, 0);
+                channels.set(slot, channel);
+                // close() 可能发生在上面的检查和 set 之间，它已清过槽位，这里自己关闭并清理
+                if (closed) {
+                    channels.compareAndSet(slot, channel, null);
+                    channel.close();
+                    return;
+                }
+                channel.closeFuture().addListener((ChannelFutureListener) closeFuture -> {
+                    channels.compareAndSet(slot, channel, null);
+                    reconnectLater(slot, channel.eventLoop());
+                });
+            });
+        }
+
+        void reconnectLater(int slot, EventLoop eventLoop) {
+            if (closed) {
+                return;
+            }
+            int count = failures.incrementAndGet(slot);
+            long delay = Math.min(MIN_BACKOFF_MILLIS << Math.min(count - 1, 16), MAX_BACKOFF_MILLIS);
+            try {
+                eventLoop.schedule(() -> connect(slot), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // EventLoop 已关闭，不再重连
+            }
+        }
+
+        Channel select() {
+            int size = channels.length();
+            int start = next.getAndIncrement() & Integer.MAX_VALUE;
+            Channel fallback = null;
+            for (int i = 0; i < size; i++) {
+                Channel channel = channels.get((start + i) % size);
+                if (channel != null && channel.isActive()) {
+                    if (channel.isWritable()) {
+                        return channel;
+                    }
+                    if (fallback == null) {
+                        fallback = channel;
+                    }
+                }
+            }
+            // 都不可写时仍写入，由 Netty 缓冲，避免丢消息
+            return fallback;
+        }
+
+        int activeCount() {
+            int count = 0;
+            for (int i = 0; i < channels.length(); i++) {
+                Channel channel = channels.get(i);
+                count += channel != null && channel.isActive() ? 1 : 0;
+            }
+            return count;
+        }
+
+        void close() {
+            closed = true;
+            for (int i = 0; i < channels.length(); i++) {
+                Channel channel = channels.getAndSet(i, null);
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            // 实例移除后回包不会再匹配，未完成数还给统计（实例重新上线时继续使用）
+            stats.onAbandoned(forwarding.size());
+            forwarding.clear();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.slg.module.connection;
+
+import com.slg.module.config.ServerConfig;
+import com.slg.module.message.ByteBufferServerMessage;
+import com.slg.module.util.HashedTimingWheel;
+import com.slg.module.util.LongObjectConcurrentMap;
+import io.netty.buffer.ByteBuf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务器间请求/响应（基于服务器消息格式的 cid）
+ * 1，每次请求分配新的 cid，等待表 key 为 (cid << 32) | userId 低 32 位，查找无装箱、无锁（LongObjectConcurrentMap）
+ * 2，回包的 cid 带 REPLY_FLAG（最高位，响应方用 replyCid 生成），请求的 cid 不带；两端都从 1 分配 cid，对端的请求不会被当成本端的回包
+ * 回包按 key 查找后再比对完整 userId，找不到（已超时、已取消）的迟到回包直接回收丢弃，不当普通消息处理
+ * 3，超时由哈希时间轮处理，不为每个请求创建定时任务
+ * 4，结果为 CompletableFuture，虚拟线程中可直接 join 阻塞等待
+ * 回包在 IO 线程完成 future，耗时处理请用 thenXxxAsync 或在虚拟线程中 join
+ * 完成的 ByteBufferServerMessage 由调用方用完后 recycle
+ */
+public final class ServerRpcClient {
+    private final ServerConnectionPool pool;
+    private final long defaultTimeoutMillis;
+    private final LongObjectConcurrentMap<PendingCall> pending;
+    private final HashedTimingWheel<PendingCall> wheel;
+    private final AtomicInteger cidSequence = new AtomicInteger();
+    // cid 最高位：1 为 RPC 回包，0 为请求或普通消息
+    public static final int REPLY_FLAG = 0x80000000;
+
+    public ServerRpcClient(ServerConnectionPool pool, long defaultTimeoutMillis) {
+        this(pool, defaultTimeoutMillis, 4096, 10, 512);
+    }
+
+    /**
+     * @param tickMillis 时间轮每格时长（超时精度）
+     * @param wheelSize  时间轮槽位数
+     */
+    public ServerRpcClient(ServerConnectionPool pool, long defaultTimeoutMillis, int expectedPending, long tickMillis, int wheelSize) {
+        this.pool = pool;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.pending = new LongObjectConcurrentMap<>(expectedPending, 64);
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, this::onTimeout);
+    }
+
+    /**
+     * 启动超时检查线程
+     */
+    public void start() {
+        wheel.start("server-rpc-wheel");
+    }
+
+    public void shutdown() {
+        wheel.stop();
+        // 遍历时持有分段读锁，先收集再移除
+        List<PendingCall> calls = new ArrayList<>();
+        pending.forEach((key, call) -> calls.add(call));
+        for (PendingCall call : calls) {
+            if (pending.remove(call.key, call)) {
+                call.future.completeExceptionally(new IllegalStateException("rpc client shutdown"));
+            }
+        }
+    }
+
+    static long key(int cid, long userId) {
+        return ((long) cid << 32) | (userId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 响应方回复 RPC 请求时使用的 cid
+     */
+    public static int replyCid(int requestCid) {
+        return requestCid | REPLY_FLAG;
+    }
+
+    public static boolean isReply(int cid) {
+        return (cid & REPLY_FLAG) != 0;
+    }
+
+    /**
+     * cid 从 1 开始递增，不带 REPLY_FLAG，跳过 0（0 为非请求消息）
+     */
+    private int nextCid() {
+        int cid;
+        do {
+            cid = cidSequence.incrementAndGet() & ~REPLY_FLAG;
+        } while (cid == 0);
+        return cid;
+    }
+
+    public CompletableFuture<ByteBufferServerMessage> call(ServerConfig server, long userId, int protocolId, short length, ByteBuf body) {
+        return call(server, userId, protocolId, 0, 0, length, body, defaultTimeoutMillis);
+    }
+
+    /**
+     * 发送请求，body 的所有权交给本方法（发送失败时释放）
+     */
+    public CompletableFuture<ByteBufferServerMessage> call(ServerConfig server, long userId, int protocolId, int zip, int encrypted,
+                                                           short length, ByteBuf body, long timeoutMillis) {
+        int cid = nextCid();
+        long key = key(cid, userId);
+        PendingCall call = new PendingCall(key, userId, cid, protocolId, InstanceStats.of(server.getServerId()),
+                System.currentTimeMillis() + timeoutMillis);
+        if (pending.putIfAbsent(key, call) != null) {
+            // cid 回绕一圈后旧请求仍未完成
+            if (body != null) {
+                body.release();
+            }
+            call.future.completeExceptionally(new IllegalStateException("rpc cid conflict: " + cid + ", userId: " + userId));
+            return call.future;
+        }
+        call.stats.onStart();
+        wheel.schedule(call);
+        if (!pool.send(server, userId, cid, 0, protocolId, zip, encrypted, length, body)) {
+            if (pending.remove(key, call)) {
+                call.cancel();
+                call.stats.onComplete(System.nanoTime() - call.startNanos, false);
+                call.future.completeExceptionally(new IllegalStateException("no connection to server: " + server.getServerId()));
+            }
+        }
+        return call.future;
+    }
+
+    /**
+     * 同步调用（在虚拟线程中使用，阻塞只挂起虚拟线程），超时抛 TimeoutException
+     */
+    public ByteBufferServerMessage callSync(ServerConfig server, long userId, int protocolId, short length, ByteBuf body) throws Exception {
+        try {
+            return call(server, userId, protocolId, length, body).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * 入站消息交给等待表，是 RPC 回包（cid 带 REPLY_FLAG）时返回 true，消息所有权转给 future，迟到的回包直接回收
+     * 返回 false 时由调用方按普通消息处理
+     */
+    public boolean onResponse(ByteBufferServerMessage msg) {
+        int cid = msg.getCid();
+        if (!isReply(cid)) {
+            return false;
+        }
+        long key = key(cid & ~REPLY_FLAG, msg.getUserId());
+        PendingCall call = pending.get(key);
+        if (call == null || call.userId != msg.getUserId() || !pending.remove(key, call)) {
+            // 已超时、已关闭或不是本端发出的请求
+            msg.recycle();
+            return true;
+        }
+        call.cancel();
+        // 业务错误码说明实例正常处理了请求，只有服务端故障类错误码计入失败
+        call.stats.onComplete(System.nanoTime() - call.startNanos, !CircuitBreaker.isFailure(msg.getErrorCode()));
+        if (!call.future.complete(msg)) {
+            // 调用方已取消 future
+            msg.recycle();
+        }
+        return true;
+    }
+
+    private void onTimeout(PendingCall call) {
+        if (!pending.remove(call.key, call)) {
+            return;
+        }
+        call.stats.onComplete(System.nanoTime() - call.startNanos, false);
+        call.future.completeExceptionally(new TimeoutException("rpc timeout, protocolId: " + call.protocolId
+                + ", cid: " + call.cid + ", userId: " + call.userId + ", serverId: " + call.stats.getServerId()));
+    }
+
+    /**
+     * 等待中的请求数
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    static final class PendingCall extends HashedTimingWheel.Entry {
+        final long key;
+        final long userId;
+        final int cid;
+        final int protocolId;
+        final InstanceStats stats;
+        final long deadline;
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<ByteBufferServerMessage> future = new CompletableFuture<>();
+
+        PendingCall(long key, long userId, int cid, int protocolId, InstanceStats stats, long deadline) {
+            this.key = key;
+            this.userId = userId;
+            this.cid = cid;
+            this.protocolId = protocolId;
+            this.stats = stats;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected long deadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.slg.module.connection;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.slg.module.config.ServerConfig;
+import com.slg.module.message.Constants;
+
+import java.util.*;
+
+/**
+ * 服务实例拓扑快照（不可变）
+ * 每次 Nacos 推送实例列表时整体重建：排除自身、不健康、未启用和元数据不完整的实例，消失的实例自然移除
+ * 协议区间取元数据 r（多段，如 "100-199,300"），没有时取 min/max
+ * 建好后由 ServerConfigManager 通过 volatile 引用整体替换，读线程无锁且不会看到构建中的状态
+ * 快照内的 ServerConfig 发布后不再修改
+ */
+public final class ServerTopology {
+    public static final ServerTopology EMPTY = new ServerTopology(0, Collections.emptyMap(), ProtoRouteTable.EMPTY);
+
+    private final long version;
+    private final Map<String, ServerConfig> servers;
+    private final ProtoRouteTable routeTable;
+
+    private ServerTopology(long version, Map<String, ServerConfig> servers, ProtoRouteTable routeTable) {
+        this.version = version;
+        this.servers = servers;
+        this.routeTable = routeTable;
+    }
+
+    public static ServerTopology build(long version, List<Instance> instances, String excludeInstanceId) {
+        Map<String, ServerConfig> servers = new LinkedHashMap<>();
+        for (Instance instance : instances) {
+            String instanceId = instance.getInstanceId();
+            // 排除当前实例
+            if (Objects.equals(instanceId, excludeInstanceId) || !instance.isHealthy() || !instance.isEnabled()) {
+                continue;
+            }
+            ServerConfig serverConfig = toServerConfig(instance);
+            if (serverConfig != null) {
+                servers.put(instanceId, serverConfig);
+            }
+        }
+        return of(version, servers);
+    }
+
+    static ServerTopology of(long version, Map<String, ServerConfig> servers) {
+        Map<String, ServerConfig> copy = Collections.unmodifiableMap(new LinkedHashMap<>(servers));
+        return new ServerTopology(version, copy, ProtoRouteTable.build(copy.values()));
+    }
+
+    /**
+     * 元数据缺失或格式错误返回 null（跳过该实例，不影响其他实例）
+     */
+    static ServerConfig toServerConfig(Instance instance) {
+        Map<String, String> metadata = instance.getMetadata();
+        try {
+            ServerConfig serverConfig = new ServerConfig();
+            serverConfig.setServerId(Integer.parseInt(instance.getInstanceId()));
+            String ranges = metadata.get(Constants.ProtoRanges);
+            if (ranges != null) {
+                serverConfig.setProtoRanges(parseRanges(ranges));
+            } else {
+                serverConfig.setMaxProtoId(Integer.parseInt(metadata.get(Constants.ProtoMaxId)));
+                serverConfig.setMinProtoId(Integer.parseInt(metadata.get(Constants.ProtoMinId)));
+            }
+            serverConfig.setGroupId(Integer.parseInt(metadata.get(Constants.GroupId)));
+            serverConfig.setPort(instance.getPort());
+            serverConfig.setHost(instance.getIp());
+            serverConfig.setWeight(instance.getWeight());
+            return serverConfig;
+        } catch (RuntimeException e) {
+            System.err.println("服务实例元数据错误, 跳过: " + instance.getInstanceId() + ", " + metadata);
+            return null;
+        }
+    }
+
+    /**
+     * 解析多段协议区间 "100-199,300,500-599"，返回排序合并后的 [起点, 终点] 对
+     */
+    public static int[] parseRanges(String value) {
+        List<int[]> ranges = new ArrayList<>();
+        for (String item : value.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int dash = item.indexOf('-', 1);
+            int start = Integer.parseInt((dash < 0 ? item : item.substring(0, dash)).trim());
+            int end = dash < 0 ? start : Integer.parseInt(item.substring(dash + 1).trim());
+            if (end < start) {
+                throw new IllegalArgumentException("protocol range end < start: " + item);
+            }
+            ranges.add(new int[]{start, end});
+        }
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("protocol range empty: " + value);
+        }
+        return mergeRanges(ranges);
+    }
+
+    /**
+     * 区间排序，重叠或相邻的合并，返回 [起点, 终点] 对
+     */
+    static int[] mergeRanges(List<int[]> ranges) {
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+        int[] merged = new int[ranges.size() * 2];
+        int n = 0;
+        for (int[] range : ranges) {
+            if (n > 0 && (long) range[0] <= (long) merged[n - 1] + 1) {
+                merged[n - 1] = Math.max(merged[n - 1], range[1]);
+            } else {
+                merged[n++] = range[0];
+                merged[n++] = range[1];
+            }
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * 注册实例时生成 Constants.ProtoRanges 元数据
+     */
+    public static String formatRanges(int... pairs) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(pairs[i]);
+            if (pairs[i + 1] != pairs[i]) {
+                sb.append('-').append(pairs[i + 1]);
+            }
+        }
+        return sb.toString();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ServerConfig getServer(String instanceId) {
+        return servers.get(instanceId);
+    }
+
+    public Map<String, ServerConfig> getServers() {
+        return servers;
+    }
+
+    public ProtoRouteTable getRouteTable() {
+        return routeTable;
+    }
+
+    public int size() {
+        return servers.size();
+    }
+
+    /**
+     * 与旧快照比较，按 instanceId 分为新增、移除、变更（地址、协议区间或组变化）
+     */
+    public Diff diff(ServerTopology old) {
+        List<ServerConfig> added = new ArrayList<>();
+        List<ServerConfig> removed = new ArrayList<>();
+        List<ServerConfig> changed = new ArrayList<>();
+        for (Map.Entry<String, ServerConfig> entry : servers.entrySet()) {
+            ServerConfig before = old.servers.get(entry.getKey());
+            if (before == null) {
+                added.add(entry.getValue());
+            } else if (!same(before, entry.getValue())) {
+                changed.add(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, ServerConfig> entry : old.servers.entrySet()) {
+            if (!servers.containsKey(entry.getKey())) {
+                removed.add(entry.getValue());
+            }
+        }
+        return new Diff(added, removed, changed);
+    }
+
+    static boolean same(ServerConfig a, ServerConfig b) {
+        return a.getServerId() == b.getServerId() && a.getGroupId() == b.getGroupId()
+                && a.getPort() == b.getPort() && Objects.equals(a.getHost(), b.getHost())
+                && Arrays.equals(a.getProtoRanges(), b.getProtoRanges())
+                && a.getWeight() == b.getWeight();
+    }
+
+    /**
+     * 两次快照的差异
+     */
+    public static final class Diff {
+        private final List<ServerConfig> added;
+        private final List<ServerConfig> removed;
+        private final List<ServerConfig> changed;
+
+        Diff(List<ServerConfig> added, List<ServerConfig> removed, List<ServerConfig> changed) {
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+            this.changed = Collections.unmodifiableList(changed);
+        }
+
+        public List<ServerConfig> getAdded() {
+            return added;
+        }
+
+        public List<ServerConfig> getRemoved() {
+            return removed;
+        }
+
+        public List<ServerConfig> getChanged() {
+            return changed;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "added: " + ids(added) + ", removed: " + ids(removed) + ", changed: " + ids(changed);
+        }
+
+        private static List<Integer> ids(List<ServerConfig> configs) {
+            List<Integer> ids = new ArrayList<>(configs.size());
+            for (ServerConfig config : configs) {
+                ids.add(config.getServerId());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * 拓扑变更监听（在刷新线程回调，不要阻塞）
+     */
+    public interface Listener {
+        void onTopologyChanged(ServerTopology old, ServerTopology current, Diff diff);
+    }
+}
@@ -0,0 +1,100 @@
+package com.slg.module.connection;
+
+import com.slg.module.util.HashedTimingWheel;
+import com.slg.module.util.SystemTimeCache;
+
+import javax.crypto.SecretKey;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 会话数据，由 SessionStore 按 sessionId 管理
+ * 最近活跃时间取自 SystemTimeCache（1s 精度），touch() 只写一个 volatile 字段
+ */
+public final class Session extends HashedTimingWheel.Entry {
+    private final long sessionId;
+    private final long userId;
+    private final long ttlMillis;
+    private volatile long lastActivity;
+    // 加密上下文
+    private volatile DHKeyInfo keyInfo;
+    private volatile SecretKey secretKey;
+    // 少量自定义属性，按需创建
+    private Map<String, Object> attributes;
+
+    Session(long sessionId, long userId, long ttlMillis) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.ttlMillis = ttlMillis;
+        this.lastActivity = SystemTimeCache.currentTimeMillis();
+    }
+
+    /**
+     * 刷新活跃时间
+     */
+    public void touch() {
+        lastActivity = SystemTimeCache.currentTimeMillis();
+    }
+
+    @Override
+    protected long deadline() {
+        return lastActivity + ttlMillis;
+    }
+
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    public DHKeyInfo getKeyInfo() {
+        return keyInfo;
+    }
+
+    public void setKeyInfo(DHKeyInfo keyInfo) {
+        this.keyInfo = keyInfo;
+    }
+
+    public SecretKey getSecretKey() {
+        return secretKey;
+    }
+
+    public void setSecretKey(SecretKey secretKey) {
+        this.secretKey = secretKey;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T getAttribute(String key) {
+        return attributes == null ? null : (T) attributes.get(key);
+    }
+
+    public synchronized void setAttribute(String key, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>(4);
+        }
+        attributes.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T removeAttribute(String key) {
+        return attributes == null ? null : (T) attributes.remove(key);
+    }
+
+    /**
+     * 已被移除或过期
+     */
+    public boolean isClosed() {
+        return isCancelled();
+    }
+
+    @Override
+    public String toString() {
+        return "Session[sessionId=" + sessionId + ", userId=" + userId + ", lastActivity=" + lastActivity + "]";
+    }
+}
@@ -0,0 +1,115 @@
+package com.slg.module.connection;
+
+import com.slg.module.util.EightByteSessionIdGenerator;
+import com.slg.module.util.HashedTimingWheel;
+import com.slg.module.util.LongObjectConcurrentMap;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 会话存储：sessionId -> Session
+ * 1，查找无装箱、无锁（LongObjectConcurrentMap）
+ * 2，空闲过期由哈希时间轮驱动，不为每个会话创建定时任务；续期只更新活跃时间，每个 tick 只处理一个槽位
+ * 3，过期会话从存储中移除后通知监听器（时间轮线程执行，监听器不应阻塞）
+ * 4，会话移除或过期时同时清理 EightByteSessionIdGenerator 中 userId -> sessionId 的映射
+ */
+public final class SessionStore {
+    private final LongObjectConcurrentMap<Session> sessions;
+    private final HashedTimingWheel<Session> wheel;
+    private final long ttlMillis;
+    private final List<Consumer<Session>> expireListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param ttlMillis    空闲超时时间
+     * @param expectedSize 预计会话数
+     */
+    public SessionStore(long ttlMillis, int expectedSize) {
+        this(ttlMillis, expectedSize, 1000, 512);
+    }
+
+    /**
+     * @param tickMillis 时间轮每格时长（过期精度）
+     * @param wheelSize  时间轮槽位数
+     */
+    public SessionStore(long ttlMillis, int expectedSize, long tickMillis, int wheelSize) {
+        this.ttlMillis = ttlMillis;
+        this.sessions = new LongObjectConcurrentMap<>(expectedSize, 64);
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, this::onExpired);
+    }
+
+    /**
+     * 启动过期检查线程
+     */
+    public void start() {
+        wheel.start("session-wheel");
+    }
+
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    /**
+     * 创建会话，已存在相同 sessionId 时替换旧会话
+     */
+    public Session create(long sessionId, long userId) {
+        Session session = new Session(sessionId, userId, ttlMillis);
+        Session old = sessions.put(sessionId, session);
+        if (old != null) {
+            old.cancel();
+        }
+        wheel.schedule(session);
+        return session;
+    }
+
+    public Session get(long sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * 获取并刷新活跃时间
+     */
+    public Session touch(long sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    /**
+     * 主动移除（登出、断线）
+     */
+    public Session remove(long sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            session.cancel();
+            EightByteSessionIdGenerator.removeSession(session.getUserId(), sessionId);
+        }
+        return session;
+    }
+
+    public void addExpireListener(Consumer<Session> listener) {
+        expireListeners.add(listener);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private void onExpired(Session session) {
+        if (!sessions.remove(session.getSessionId(), session)) {
+            return;
+        }
+        session.cancel();
+        EightByteSessionIdGenerator.removeSession(session.getUserId(), session.getSessionId());
+        for (Consumer<Session> listener : expireListeners) {
+            listener.accept(session);
+        }
+    }
+}
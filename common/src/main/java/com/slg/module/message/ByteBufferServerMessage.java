@@ -1,5 +1,6 @@
 package com.slg.module.message;
 
+import com.slg.module.util.RecyclerPool;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.Recycler;
 
@@ -17,33 +18,37 @@ public class ByteBufferServerMessage {
     private byte encrypted;//加密
     private short length;//长度
     private ByteBuf body; // 改用 ByteBuf 避免拷贝
-    private static final Recycler<ByteBufferServerMessage> RECYCLER = new Recycler<ByteBufferServerMessage>() {
-        @Override
-        protected ByteBufferServerMessage newObject(Handle<ByteBufferServerMessage> handle) {
-            return new ByteBufferServerMessage(handle);
-        }
-    };
+    private static final RecyclerPool<ByteBufferServerMessage> POOL =
+            new RecyclerPool<>("serverMessage", 4096, 512, ByteBufferServerMessage::new, ByteBufferServerMessage::recycle);
 
-    private final Recycler.Handle<ByteBufferServerMessage> handle; // final字段
+    private final Recycler.Handle<ByteBufferServerMessage> handle; // final字段，跨线程池创建的对象为 null
 
     // 必须的私有构造器
     private ByteBufferServerMessage(Recycler.Handle<ByteBufferServerMessage> handle) {
         this.handle = Objects.requireNonNull(handle);
     }
 
+    // 跨线程池 ServerMessagePool 使用
+    ByteBufferServerMessage() {
+        this.handle = null;
+    }
+
     // 从对象池获取实例（传入 ByteBuf 直接引用）
     public static ByteBufferServerMessage newInstance(long userId, int cid, int errorCode, int protocolId, byte zip, byte encrypted, short length, ByteBuf body) {
-        ByteBufferServerMessage msg = RECYCLER.get();
-        msg.userId = userId;
-        msg.cid = cid;
-        msg.errorCode = errorCode;
-        msg.protocolId = protocolId;
-        msg.zip = zip;
-        msg.encrypted = encrypted;
-        msg.length = length;
-        msg.body = body; // 增加引用计数
-//        msg.body = body.retain(); // 增加引用计数
-        return msg;
+        return POOL.get().init(userId, cid, errorCode, protocolId, zip, encrypted, length, body);
+    }
+
+    ByteBufferServerMessage init(long userId, int cid, int errorCode, int protocolId, byte zip, byte encrypted, short length, ByteBuf body) {
+        this.userId = userId;
+        this.cid = cid;
+        this.errorCode = errorCode;
+        this.protocolId = protocolId;
+        this.zip = zip;
+        this.encrypted = encrypted;
+        this.length = length;
+        this.body = body; // 增加引用计数
+//        this.body = body.retain(); // 增加引用计数
+        return this;
     }
 
 //    // 解析 Protobuf（零拷贝）
@@ -52,8 +57,18 @@ public class ByteBufferServerMessage {
 //        return parser.parseFrom(body.nioBuffer());
 //    }
 
-    // 回收对象
+    // 回收对象，归还到创建它的池
     public void recycle() {
+        if (handle == null) {
+            ServerMessagePool.getInstance().returnObject(this);
+            return;
+        }
+        reset();
+        POOL.recycle(this, handle);
+    }
+
+    // 重置字段并释放 body
+    void reset() {
         userId = 0;
         cid = 0;
         errorCode = 0;
@@ -65,7 +80,6 @@ public class ByteBufferServerMessage {
             body.release();
             body = null;
         }
-        handle.recycle(this);
     }
 
 
@@ -10,6 +10,8 @@ public final class Constants {
     public static final String ProtoMaxId = "max";
     public static final String GroupId = "g";
     public static final String ServerId = "s";
+    //多段协议区间，如 "100-199,300,500-599"，有此项时忽略 min/max
+    public static final String ProtoRanges = "r";
 
     // 标志位掩码
     public static final byte COMPRESSION_MASK = 0b00000010; // 压缩标志位
@@ -1,6 +1,7 @@
 package com.slg.module.message;
 
 import com.google.protobuf.GeneratedMessage;
+import com.slg.module.util.RecyclerPool;
 import io.netty.util.Recycler;
 
 import java.util.Objects;
@@ -13,37 +14,38 @@ public class MsgResponse {
     //0000 0001:加密
     //0000 0010:压缩
 
-    private static final Recycler<MsgResponse> RECYCLER = new Recycler<MsgResponse>() {
-        @Override
-        protected MsgResponse newObject(Handle<MsgResponse> handle) {
-            return new MsgResponse(handle);
-        }
-    };
+    private static final RecyclerPool<MsgResponse> POOL =
+            new RecyclerPool<>("msgResponse", 4096, 512, MsgResponse::new, MsgResponse::recycle);
 
-    private final Recycler.Handle<MsgResponse> handle; // final字段
+    private final Recycler.Handle<MsgResponse> handle; // final字段，跨线程池创建的对象为 null
 
     // 必须的私有构造器
     private MsgResponse(Recycler.Handle<MsgResponse> handle) {
         this.handle = Objects.requireNonNull(handle);
     }
 
+    // 跨线程池 ResponsePool 使用
+    MsgResponse() {
+        this.handle = null;
+    }
+
     // 从对象池获取实例（传入 ByteBuf 直接引用）
     public static MsgResponse newInstance(GeneratedMessage.Builder<?> body) {
-        MsgResponse msg = RECYCLER.get();
+        MsgResponse msg = POOL.get();
         msg.errorCode = ErrorCodeConstants.SUCCESS;
         msg.body = body;
         return msg;
     }
 
     public static MsgResponse newInstance(int errorCode) {
-        MsgResponse msg = RECYCLER.get();
+        MsgResponse msg = POOL.get();
         msg.errorCode = errorCode;
         msg.body = null;
         return msg;
     }
 
     public static MsgResponse newInstance(GeneratedMessage.Builder<?> body, boolean encrypted) {
-        MsgResponse msg = RECYCLER.get();
+        MsgResponse msg = POOL.get();
         msg.errorCode = ErrorCodeConstants.SUCCESS;
         msg.body = body;
         byte msgFlag = msg.flag;
@@ -70,12 +72,20 @@ public class MsgResponse {
         return flag;
     }
 
-    // 回收对象
+    // 回收对象，归还到创建它的池
     public void recycle() {
+        if (handle == null) {
+            ResponsePool.getInstance().returnObject(this);
+            return;
+        }
+        reset();
+        POOL.recycle(this, handle);
+    }
+
+    void reset() {
         flag = 0;
         errorCode = 0;
         body = null;
-        handle.recycle(this);
     }
 
 
@@ -1,6 +1,7 @@
 package com.slg.module.message;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
@@ -52,8 +53,15 @@ public class MsgUtil {
      * 服务器信息
      */
     public static ByteBuf buildServerMsg(ChannelHandlerContext ctx, long userId, int cid, int errorCode, int protocolId, int zip, int encrypted, short length, ByteBuf body) {
+        return buildServerMsg(ctx.alloc(), userId, cid, errorCode, protocolId, zip, encrypted, length, body);
+    }
+
+    /**
+     * 服务器信息（无 ChannelHandlerContext 时使用，如连接池直接写 Channel，传 channel.alloc()）
+     */
+    public static ByteBuf buildServerMsg(ByteBufAllocator alloc, long userId, int cid, int errorCode, int protocolId, int zip, int encrypted, short length, ByteBuf body) {
         //写回
-        ByteBuf out = ctx.alloc().buffer(24 + length);
+        ByteBuf out = alloc.buffer(24 + length);
         //消息头
         out.writeLong(userId);      // 8字节
         out.writeInt(cid);      // 4字节
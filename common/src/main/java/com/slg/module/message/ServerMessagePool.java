@@ -0,0 +1,78 @@
+package com.slg.module.message;
+
+import com.slg.module.util.ConcurrentObjectPool;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * ByteBufferServerMessage 跨线程对象池
+ * 适用于 IO 线程解码、业务线程/其他 EventLoop 处理后回收的服务器消息
+ * 同线程创建和回收的场景仍使用 ByteBufferServerMessage.newInstance（线程本地 Recycler）
+ * 配置：-Dpool.serverMessage.shared.minIdle，-Dpool.serverMessage.shared.maxSize
+ */
+public final class ServerMessagePool {
+    private static final ServerMessagePool INSTANCE = new ServerMessagePool();
+    private final ConcurrentObjectPool<ByteBufferServerMessage> pool;
+
+    private ServerMessagePool() {
+        this.pool = new ConcurrentObjectPool<>(
+                new ServerMessageFactory(),
+                Integer.getInteger("pool.serverMessage.shared.minIdle", 64),
+                Integer.getInteger("pool.serverMessage.shared.maxSize", 4096)
+        );
+    }
+
+    public static ServerMessagePool getInstance() {
+        return INSTANCE;
+    }
+
+    // 从池中借出对象（传入 ByteBuf 直接引用，回收时释放）
+    public ByteBufferServerMessage newInstance(long userId, int cid, int errorCode, int protocolId, byte zip, byte encrypted, short length, ByteBuf body) {
+        return pool.take().init(userId, cid, errorCode, protocolId, zip, encrypted, length, body);
+    }
+
+    // 归还对象到池，也可直接调用 ByteBufferServerMessage.recycle()
+    public void returnObject(ByteBufferServerMessage message) {
+        if (message != null) {
+            pool.restore(message);
+        }
+    }
+
+    public int idleSize() {
+        return pool.idleSize();
+    }
+
+    @Override
+    public String toString() {
+        return "ServerMessagePool" + pool;
+    }
+
+    public void shutdown() {
+        pool.terminate();
+    }
+
+    private static class ServerMessageFactory
+            implements ConcurrentObjectPool.PoolObjectFactory<ByteBufferServerMessage> {
+
+        @Override
+        public ByteBufferServerMessage create() {
+            return new ByteBufferServerMessage();
+        }
+
+        @Override
+        public boolean readyToTake(ByteBufferServerMessage obj) {
+            return true;
+        }
+
+        // 归还前释放 body 并重置字段
+        @Override
+        public boolean readyToRestore(ByteBufferServerMessage obj) {
+            obj.reset();
+            return true;
+        }
+
+        @Override
+        public void destroy(ByteBufferServerMessage obj) {
+            obj.reset();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.slg.module.register;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.slg.module.message.Constants;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * 进程内服务发现（替代 Nacos，离线压测和基准测试使用）
+ * 1，实例和配置存在内存中，注册、注销、健康状态变化后立即向订阅者推送完整实例列表
+ * 2，推送在 notifyExecutor 中执行，默认在调用线程同步执行，便于测量重建耗时
+ * 3，实例注册时复制一份保存，外部修改原对象不影响已注册实例
+ * 4，instanceId 即 serverId，必须为数字；未设置时取元数据 s（Constants.ServerId），都没有时注册失败
+ */
+public class LocalServiceDiscovery implements ServiceDiscovery {
+    private final Executor notifyExecutor;
+    // serviceKey -> instanceId -> Instance
+    private final Map<String, LinkedHashMap<String, Instance>> services = new HashMap<>();
+    private final Map<String, List<Consumer<List<Instance>>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, String> configs = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> configListeners = new ConcurrentHashMap<>();
+
+    public LocalServiceDiscovery() {
+        this(Runnable::run);
+    }
+
+    public LocalServiceDiscovery(Executor notifyExecutor) {
+        this.notifyExecutor = notifyExecutor;
+    }
+
+    private static String key(String name, String group) {
+        return group + "@@" + name;
+    }
+
+    @Override
+    public void registerInstance(String serviceName, String groupName, Instance instance) {
+        Instance copy = copy(instance);
+        if (copy.getInstanceId() == null) {
+            copy.setInstanceId(copy.getMetadata().get(Constants.ServerId));
+        }
+        try {
+            Integer.parseInt(String.valueOf(copy.getInstanceId()));
+        } catch (NumberFormatException e) {
+            // ServerTopology 按 instanceId 解析 serverId，非数字的实例会被跳过
+            throw new IllegalArgumentException("instanceId 必须为数字 serverId: " + copy.getInstanceId()
+                    + ", " + copy.getIp() + ":" + copy.getPort());
+        }
+        copy.setServiceName(serviceName);
+        String key = key(serviceName, groupName);
+        List<Instance> instances;
+        synchronized (services) {
+            services.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(copy.getInstanceId(), copy);
+            instances = snapshot(key);
+        }
+        notifySubscribers(key, instances);
+    }
+
+    @Override
+    public void deregisterInstance(String serviceName, String groupName, String ip, int port) {
+        String key = key(serviceName, groupName);
+        List<Instance> instances;
+        synchronized (services) {
+            LinkedHashMap<String, Instance> map = services.get(key);
+            if (map == null || !map.values().removeIf(i -> Objects.equals(i.getIp(), ip) && i.getPort() == port)) {
+                return;
+            }
+            instances = snapshot(key);
+        }
+        notifySubscribers(key, instances);
+    }
+
+    /**
+     * 按 instanceId 注销
+     */
+    public void deregisterInstance(String serviceName, String groupName, String instanceId) {
+        update(serviceName, groupName, instanceId, null);
+    }
+
+    /**
+     * 修改实例健康状态（模拟心跳超时、恢复）
+     */
+    public void setHealthy(String serviceName, String groupName, String instanceId, boolean healthy) {
+        update(serviceName, groupName, instanceId, instance -> instance.setHealthy(healthy));
+    }
+
+    /**
+     * 修改实例元数据（模拟协议区间、分组、权重调整）
+     */
+    public void updateMetadata(String serviceName, String groupName, String instanceId, Map<String, String> metadata) {
+        update(serviceName, groupName, instanceId, instance -> instance.setMetadata(new HashMap<>(metadata)));
+    }
+
+    /**
+     * 修改实例（modifier 为 null 时移除），实例替换为修改后的副本，已推送的列表不受影响
+     */
+    private void update(String serviceName, String groupName, String instanceId, Consumer<Instance> modifier) {
+        String key = key(serviceName, groupName);
+        List<Instance> instances;
+        synchronized (services) {
+            LinkedHashMap<String, Instance> map = services.get(key);
+            Instance exist = map == null ? null : map.get(instanceId);
+            if (exist == null) {
+                return;
+            }
+            if (modifier == null) {
+                map.remove(instanceId);
+            } else {
+                Instance copy = copy(exist);
+                modifier.accept(copy);
+                map.put(instanceId, copy);
+            }
+            instances = snapshot(key);
+        }
+        notifySubscribers(key, instances);
+    }
+
+    @Override
+    public List<Instance> getAllInstances(String serviceName, String groupName) {
+        synchronized (services) {
+            return snapshot(key(serviceName, groupName));
+        }
+    }
+
+    private List<Instance> snapshot(String key) {
+        LinkedHashMap<String, Instance> map = services.get(key);
+        return map == null ? Collections.emptyList() : List.copyOf(map.values());
+    }
+
+    @Override
+    public void subscribe(String serviceName, String groupName, Consumer<List<Instance>> listener) {
+        subscribers.computeIfAbsent(key(serviceName, groupName), k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void unsubscribe(String serviceName, String groupName, Consumer<List<Instance>> listener) {
+        List<Consumer<List<Instance>>> listeners = subscribers.get(key(serviceName, groupName));
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    private void notifySubscribers(String key, List<Instance> instances) {
+        List<Consumer<List<Instance>>> listeners = subscribers.get(key);
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<List<Instance>> listener : listeners) {
+            notifyExecutor.execute(() -> listener.accept(instances));
+        }
+    }
+
+    @Override
+    public String getConfig(String dataId, String group, long timeoutMillis) {
+        return configs.get(key(dataId, group));
+    }
+
+    @Override
+    public boolean publishConfig(String dataId, String group, String content) {
+        String key = key(dataId, group);
+        String old = configs.put(key, content);
+        if (Objects.equals(old, content)) {
+            return true;
+        }
+        List<Consumer<String>> listeners = configListeners.get(key);
+        if (listeners != null) {
+            for (Consumer<String> listener : listeners) {
+                notifyExecutor.execute(() -> listener.accept(content));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void addConfigListener(String dataId, String group, Consumer<String> listener) {
+        configListeners.computeIfAbsent(key(dataId, group), k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void removeConfigListener(String dataId, String group, Consumer<String> listener) {
+        List<Consumer<String>> listeners = configListeners.get(key(dataId, group));
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    private static Instance copy(Instance instance) {
+        Instance copy = new Instance();
+        copy.setInstanceId(instance.getInstanceId());
+        copy.setServiceName(instance.getServiceName());
+        copy.setIp(instance.getIp());
+        copy.setPort(instance.getPort());
+        copy.setWeight(instance.getWeight());
+        copy.setHealthy(instance.isHealthy());
+        copy.setEnabled(instance.isEnabled());
+        copy.setMetadata(instance.getMetadata() == null ? new HashMap<>() : new HashMap<>(instance.getMetadata()));
+        return copy;
+    }
+}
@@ -0,0 +1,133 @@
+package com.slg.module.register;
+
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.slg.module.util.NacosClientUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 基于 Nacos 的服务发现（委托 NacosClientUtil）
+ */
+public class NacosServiceDiscovery implements ServiceDiscovery {
+    private final NacosClientUtil client;
+    // 取消订阅时需要原来的 Nacos 监听器
+    private final Map<Object, EventListener> namingListeners = new ConcurrentHashMap<>();
+    private final Map<Object, NacosClientUtil.SimpleListener> configListeners = new ConcurrentHashMap<>();
+
+    public NacosServiceDiscovery(NacosClientUtil client) {
+        if (client == null) {
+            throw new IllegalStateException("NacosClientUtil尚未初始化");
+        }
+        this.client = client;
+    }
+
+    @Override
+    public void registerInstance(String serviceName, String groupName, Instance instance) {
+        try {
+            client.registerInstance(instance.getInstanceId(), serviceName, groupName, instance.getIp(), instance.getPort(),
+                    instance.getWeight(), instance.getMetadata());
+        } catch (NacosException e) {
+            throw new RuntimeException("注册服务实例失败: " + serviceName, e);
+        }
+    }
+
+    @Override
+    public void deregisterInstance(String serviceName, String groupName, String ip, int port) {
+        try {
+            client.deregisterInstance(serviceName, groupName, ip, port);
+        } catch (NacosException e) {
+            throw new RuntimeException("注销服务实例失败: " + serviceName, e);
+        }
+    }
+
+    @Override
+    public List<Instance> getAllInstances(String serviceName, String groupName) {
+        try {
+            return client.getAllInstances(serviceName, groupName);
+        } catch (NacosException e) {
+            throw new RuntimeException("获取服务实例失败: " + serviceName, e);
+        }
+    }
+
+    @Override
+    public void subscribe(String serviceName, String groupName, Consumer<List<Instance>> listener) {
+        EventListener eventListener = event -> {
+            if (event instanceof NamingEvent) {
+                listener.accept(((NamingEvent) event).getInstances());
+            }
+        };
+        namingListeners.put(List.of(serviceName, groupName, listener), eventListener);
+        try {
+            client.listenServiceStatus(serviceName, groupName, eventListener);
+        } catch (NacosException e) {
+            throw new RuntimeException("订阅服务实例失败: " + serviceName, e);
+        }
+    }
+
+    @Override
+    public void unsubscribe(String serviceName, String groupName, Consumer<List<Instance>> listener) {
+        EventListener eventListener = namingListeners.remove(List.of(serviceName, groupName, listener));
+        if (eventListener == null) {
+            return;
+        }
+        try {
+            client.stopListenServiceStatus(serviceName, groupName, eventListener);
+        } catch (NacosException e) {
+            throw new RuntimeException("取消订阅服务实例失败: " + serviceName, e);
+        }
+    }
+
+    @Override
+    public String getConfig(String dataId, String group, long timeoutMillis) {
+        try {
+            return client.getConfig(dataId, group, timeoutMillis);
+        } catch (NacosException e) {
+            throw new RuntimeException("获取配置失败: " + dataId, e);
+        }
+    }
+
+    @Override
+    public boolean publishConfig(String dataId, String group, String content) {
+        try {
+            return client.publishConfig(dataId, group, content);
+        } catch (NacosException e) {
+            throw new RuntimeException("发布配置失败: " + dataId, e);
+        }
+    }
+
+    @Override
+    public void addConfigListener(String dataId, String group, Consumer<String> listener) {
+        NacosClientUtil.SimpleListener simpleListener = new NacosClientUtil.SimpleListener() {
+            @Override
+            public void onConfigChanged(String configInfo) {
+                listener.accept(configInfo);
+            }
+        };
+        configListeners.put(List.of(dataId, group, listener), simpleListener);
+        try {
+            client.addListener(dataId, group, simpleListener);
+        } catch (NacosException e) {
+            throw new RuntimeException("监听配置失败: " + dataId, e);
+        }
+    }
+
+    @Override
+    public void removeConfigListener(String dataId, String group, Consumer<String> listener) {
+        NacosClientUtil.SimpleListener simpleListener = configListeners.remove(List.of(dataId, group, listener));
+        if (simpleListener == null) {
+            return;
+        }
+        simpleListener.shutdown();
+        try {
+            client.removeListener(dataId, group, simpleListener);
+        } catch (NacosException e) {
+            throw new RuntimeException("取消监听配置失败: " + dataId, e);
+        }
+    }
+}
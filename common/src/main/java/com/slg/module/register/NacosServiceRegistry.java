@@ -4,7 +4,9 @@ import com.alibaba.nacos.api.NacosFactory;
 import com.alibaba.nacos.api.exception.NacosException;
 import com.alibaba.nacos.api.naming.NamingService;
 import com.alibaba.nacos.api.naming.pojo.Instance;
+import com.slg.module.message.Constants;
 import com.slg.module.util.ConfigReader;
+import com.slg.module.util.EightByteSessionIdGenerator;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -41,13 +43,30 @@ public class NacosServiceRegistry {
     }
 
     /**
-     * 注册服务实例到Nacos
+     * 注册服务实例到Nacos，实例 id 取 -Dserver.instanceId（未设置时由 Nacos 分配）
      */
     public void registerService(int port) {
+        registerService(port, System.getProperty("server.instanceId"));
+    }
+
+    /**
+     * 注册服务实例到Nacos
+     *
+     * @param instanceId 本实例 id（数字 serverId），同时作为 sessionId 的节点 id；为 null 时由 Nacos 分配
+     */
+    public void registerService(int port, String instanceId) {
+        if (instanceId != null) {
+            // 节点 id 非法时在注册前失败
+            EightByteSessionIdGenerator.initNode(instanceId);
+        }
         try {
             this.port = port;
             
             Instance instance = new Instance();
+            if (instanceId != null) {
+                instance.setInstanceId(instanceId);
+                instance.getMetadata().put(Constants.ServerId, instanceId);
+            }
             instance.setIp(ip);
             instance.setPort(port);
             instance.setServiceName(serviceName);
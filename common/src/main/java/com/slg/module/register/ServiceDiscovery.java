@@ -0,0 +1,43 @@
+package com.slg.module.register;
+
+import com.alibaba.nacos.api.naming.pojo.Instance;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 服务发现与配置中心 SPI
+ * 1，NacosServiceDiscovery：基于 NacosClientUtil，线上使用
+ * 2，LocalServiceDiscovery：进程内内存实现，离线压测、基准测试和本地开发使用
+ * 实例沿用 Nacos Instance（元数据 min/max/g/s 见 Constants），两种实现对上层无差别
+ * 方法不抛受检异常，注册中心错误包装为 RuntimeException
+ */
+public interface ServiceDiscovery {
+
+    void registerInstance(String serviceName, String groupName, Instance instance);
+
+    void deregisterInstance(String serviceName, String groupName, String ip, int port);
+
+    List<Instance> getAllInstances(String serviceName, String groupName);
+
+    /**
+     * 订阅实例变化，每次回调完整的实例列表（含不健康实例）
+     */
+    void subscribe(String serviceName, String groupName, Consumer<List<Instance>> listener);
+
+    void unsubscribe(String serviceName, String groupName, Consumer<List<Instance>> listener);
+
+    /**
+     * @return 配置内容，不存在返回 null
+     */
+    String getConfig(String dataId, String group, long timeoutMillis);
+
+    boolean publishConfig(String dataId, String group, String content);
+
+    /**
+     * 监听配置变化，回调变化后的内容
+     */
+    void addConfigListener(String dataId, String group, Consumer<String> listener);
+
+    void removeConfigListener(String dataId, String group, Consumer<String> listener);
+}
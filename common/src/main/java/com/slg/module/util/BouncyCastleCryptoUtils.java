@@ -8,6 +8,7 @@ import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.Security;
 import java.util.Objects;
@@ -31,20 +32,12 @@ public final class BouncyCastleCryptoUtils {
     private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
 
     // 对象池：加密上下文
-    private static final Recycler<EncryptContext> ENCRYPT_CONTEXT_POOL = new Recycler<EncryptContext>() {
-        @Override
-        protected EncryptContext newObject(Handle<EncryptContext> handle) {
-            return new EncryptContext(handle);
-        }
-    };
+    private static final RecyclerPool<EncryptContext> ENCRYPT_CONTEXT_POOL =
+            new RecyclerPool<>("bcEncryptContext", 256, 16, EncryptContext::new, EncryptContext::recycle);
 
     // 对象池：解密上下文
-    private static final Recycler<DecryptContext> DECRYPT_CONTEXT_POOL = new Recycler<DecryptContext>() {
-        @Override
-        protected DecryptContext newObject(Handle<DecryptContext> handle) {
-            return new DecryptContext(handle);
-        }
-    };
+    private static final RecyclerPool<DecryptContext> DECRYPT_CONTEXT_POOL =
+            new RecyclerPool<>("bcDecryptContext", 256, 16, DecryptContext::new, DecryptContext::recycle);
 
     // 加密上下文（对象池复用）
     private static final class EncryptContext {
@@ -54,11 +47,11 @@ public final class BouncyCastleCryptoUtils {
 
         EncryptContext(Recycler.Handle<EncryptContext> handle) {
             this.handle = handle;
+            this.cipher = newCipher();
         }
 
         void recycle() {
-            cipher = null;
-            handle.recycle(this);
+            ENCRYPT_CONTEXT_POOL.recycle(this, handle);
         }
     }
 
@@ -70,11 +63,11 @@ public final class BouncyCastleCryptoUtils {
 
         DecryptContext(Recycler.Handle<DecryptContext> handle) {
             this.handle = handle;
+            this.cipher = newCipher();
         }
 
         void recycle() {
-            cipher = null;
-            handle.recycle(this);
+            DECRYPT_CONTEXT_POOL.recycle(this, handle);
         }
     }
 
@@ -173,6 +166,15 @@ public final class BouncyCastleCryptoUtils {
         }
     }
 
+    // 预先创建 Cipher，失败时留到使用时再创建
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance("AES/CBC/PKCS7Padding", PROVIDER);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+    }
+
     // 私有构造，防止实例化
     private BouncyCastleCryptoUtils() {}
 }
\ No newline at end of file
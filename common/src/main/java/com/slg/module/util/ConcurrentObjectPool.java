@@ -0,0 +1,242 @@
+package com.slg.module.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 跨线程对象池（无锁 MPMC 环形队列）
+ * 与 RecyclerPool（线程本地）不同，适用于在一个线程借出、在另一个线程归还的对象，
+ * 例如 IO 线程创建、虚拟线程/业务线程消费的消息
+ *
+ * 1，take() 从不阻塞：池空时直接 create()
+ * 2，restore() 从不阻塞：池满（达到 maxSize）或 readyToRestore 返回 false 时销毁对象
+ * 3，minIdle 在创建时预填充，可调用 ensureMinIdle() 补足
+ *
+ * @param <T> 池化对象类型
+ */
+public final class ConcurrentObjectPool<T> {
+
+    /**
+     * 对象工厂
+     */
+    public interface PoolObjectFactory<T> {
+        T create();
+
+        /**
+         * 对象取出前的准备，返回 false 则销毁并继续取下一个
+         */
+        boolean readyToTake(T obj);
+
+        /**
+         * 对象归还前的重置，返回 false 则销毁不入池
+         */
+        boolean readyToRestore(T obj);
+
+        void destroy(T obj);
+    }
+
+    private final PoolObjectFactory<T> factory;
+    private final MpmcRing<T> ring;
+    private final int minIdle;
+    private final int maxSize;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder restored = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+
+    private volatile boolean terminated;
+
+    /**
+     * @param factory 对象工厂
+     * @param minIdle 最小空闲数（预填充）
+     * @param maxSize 池内最多保留的对象数，向上取整为 2 的幂
+     */
+    public ConcurrentObjectPool(PoolObjectFactory<T> factory, int minIdle, int maxSize) {
+        if (minIdle < 0 || maxSize <= 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("invalid pool size, minIdle: " + minIdle + ", maxSize: " + maxSize);
+        }
+        this.factory = factory;
+        this.minIdle = minIdle;
+        this.ring = new MpmcRing<>(maxSize);
+        this.maxSize = ring.capacity();
+        ensureMinIdle();
+    }
+
+    /**
+     * 借出对象
+     */
+    public T take() {
+        taken.increment();
+        T obj;
+        while ((obj = ring.poll()) != null) {
+            if (factory.readyToTake(obj)) {
+                return obj;
+            }
+            destroy(obj);
+        }
+        created.increment();
+        return factory.create();
+    }
+
+    /**
+     * 归还对象，可在任意线程调用
+     */
+    public void restore(T obj) {
+        if (obj == null) {
+            return;
+        }
+        restored.increment();
+        if (terminated || !factory.readyToRestore(obj) || !ring.offer(obj)) {
+            destroy(obj);
+        }
+    }
+
+    /**
+     * 补足最小空闲对象
+     *
+     * @return 新建对象数
+     */
+    public int ensureMinIdle() {
+        int count = 0;
+        while (!terminated && ring.size() < minIdle) {
+            T obj = factory.create();
+            created.increment();
+            if (!ring.offer(obj)) {
+                destroy(obj);
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 关闭对象池，销毁所有空闲对象，之后归还的对象直接销毁
+     */
+    public void terminate() {
+        terminated = true;
+        T obj;
+        while ((obj = ring.poll()) != null) {
+            destroy(obj);
+        }
+    }
+
+    private void destroy(T obj) {
+        destroyed.increment();
+        factory.destroy(obj);
+    }
+
+    public int idleSize() {
+        return ring.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long createdCount() {
+        return created.sum();
+    }
+
+    public long takenCount() {
+        return taken.sum();
+    }
+
+    public long restoredCount() {
+        return restored.sum();
+    }
+
+    public long destroyedCount() {
+        return destroyed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentObjectPool[idle=" + idleSize() + ", max=" + maxSize + ", created=" + created.sum()
+                + ", taken=" + taken.sum() + ", restored=" + restored.sum() + ", destroyed=" + destroyed.sum() + "]";
+    }
+
+    /**
+     * 有界无锁 MPMC 队列（Vyukov 算法）
+     * 每个槽位带序号：序号 == 入队位置 表示可写，序号 == 出队位置 + 1 表示可读
+     */
+    static final class MpmcRing<E> {
+        private final int mask;
+        private final AtomicReferenceArray<E> buffer;
+        private final AtomicLongArray sequences;
+        private final AtomicLong enqueuePos = new AtomicLong();
+        private final AtomicLong dequeuePos = new AtomicLong();
+
+        MpmcRing(int capacity) {
+            int size = 1;
+            while (size < capacity) {
+                size <<= 1;
+            }
+            this.mask = size - 1;
+            this.buffer = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(E e) {
+            long pos = enqueuePos.get();
+            int index;
+            for (; ; ) {
+                index = (int) (pos & mask);
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (enqueuePos.compareAndSet(pos, pos + 1)) {
+                        break;
+                    }
+                    pos = enqueuePos.get();
+                } else if (diff < 0) {
+                    // 已满
+                    return false;
+                } else {
+                    pos = enqueuePos.get();
+                }
+            }
+            buffer.lazySet(index, e);
+            sequences.lazySet(index, pos + 1);
+            return true;
+        }
+
+        E poll() {
+            long pos = dequeuePos.get();
+            int index;
+            for (; ; ) {
+                index = (int) (pos & mask);
+                long diff = sequences.get(index) - (pos + 1);
+                if (diff == 0) {
+                    if (dequeuePos.compareAndSet(pos, pos + 1)) {
+                        break;
+                    }
+                    pos = dequeuePos.get();
+                } else if (diff < 0) {
+                    // 为空
+                    return null;
+                } else {
+                    pos = dequeuePos.get();
+                }
+            }
+            E e = buffer.get(index);
+            buffer.lazySet(index, null);
+            sequences.lazySet(index, pos + mask + 1);
+            return e;
+        }
+
+        int size() {
+            long size = enqueuePos.get() - dequeuePos.get();
+            return (int) Math.max(0, Math.min(size, mask + 1));
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -21,12 +22,8 @@ public class CryptoUtilsPool {
     private static final int IV_SIZE = 16;
 
     // 对象池：复用 Cipher 和临时缓冲区（减少 GC）
-    private static final Recycler<CipherContext> CIPHER_CONTEXT_POOL = new Recycler<CipherContext>() {
-        @Override
-        protected CipherContext newObject(Handle<CipherContext> handle) {
-            return new CipherContext(handle);
-        }
-    };
+    private static final RecyclerPool<CipherContext> CIPHER_CONTEXT_POOL =
+            new RecyclerPool<>("cipherContext", 256, 16, CipherContext::new, CipherContext::recycle);
 
     // 线程局部变量：避免 SecureRandom 竞争
     private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
@@ -39,11 +36,16 @@ public class CryptoUtilsPool {
 
         public CipherContext(Recycler.Handle<CipherContext> handle) {
             this.handle = handle;
+            try {
+                // 预先创建 Cipher，每次使用前都会重新 init，可跨次复用
+                this.cipher = Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                // 使用时再创建
+            }
         }
 
         public void recycle() {
-            cipher = null;
-            handle.recycle(this);
+            CIPHER_CONTEXT_POOL.recycle(this, handle);
         }
     }
 
@@ -1,61 +1,144 @@
 package com.slg.module.util;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class EightByteSessionIdGenerator {
+    // 未登录/不存在时返回的 sessionId
+    public static final long NO_SESSION = 0L;
 
-    public final static Map<Long,Long> sessionIdMap = new ConcurrentHashMap<>();
+    // userId -> sessionId，无装箱
+    public final static LongLongConcurrentMap sessionIdMap = new LongLongConcurrentMap(1 << 16, 64);
+
+    private static volatile ScheduledExecutorService expireExecutor;
+
+    // 本实例 id 的启动参数，未调用 initNode 时首次生成 sessionId 用它初始化
+    static final String INSTANCE_ID_PROPERTY = "server.instanceId";
+
+    // 未初始化时为 null，生成 sessionId 直接失败，避免多个节点都以节点 0 生成重复 id
+    private static volatile SnowflakeIdGenerator generator;
+
+    /**
+     * @return sessionId，不存在时返回 NO_SESSION
+     */
     public static long getSessionIdByUserId(long userId) {
-        return sessionIdMap.get(userId);
+        return sessionIdMap.get(userId, NO_SESSION);
+    }
+
+    /**
+     * 登出时移除
+     *
+     * @return 被移除的 sessionId，不存在时返回 NO_SESSION
+     */
+    public static long removeSession(long userId) {
+        return sessionIdMap.remove(userId, NO_SESSION);
     }
 
     /**
-     * 生成一个基于时间戳和用户ID的8字节大小的sessionId
+     * 会话结束时移除，只有当前 sessionId 仍是该会话时才移除，不影响已重新登录的新会话
+     *
+     * @return 是否移除
+     */
+    public static boolean removeSession(long userId, long sessionId) {
+        return sessionIdMap.removeIfEquals(userId, sessionId);
+    }
+
+    /**
+     * 清理超过 idleMillis 未访问的会话
+     */
+    public static int expireIdleSessions(long idleMillis) {
+        return sessionIdMap.expireIdle(idleMillis);
+    }
+
+    /**
+     * 启动定时清理空闲会话（只启动一次），用于不经过 SessionStore 管理会话的进程
+     * 按 userId 查询 sessionId 会刷新访问时间，idleMillis 需大于会话正常的查询间隔
+     *
+     * @param idleMillis   空闲时间
+     * @param periodMillis 清理间隔
+     */
+    public static synchronized void startIdleExpiry(long idleMillis, long periodMillis) {
+        if (expireExecutor != null) {
+            return;
+        }
+        expireExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-expire");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expireExecutor.scheduleWithFixedDelay(() -> {
+            int removed = expireIdleSessions(idleMillis);
+            if (removed > 0) {
+                System.out.println("清理空闲会话: " + removed + ", 剩余: " + sessionIdMap.size()
+                        + ", 内存: " + sessionIdMap.memoryBytes() + "B");
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static int sessionCount() {
+        return sessionIdMap.size();
+    }
+
+    public static long sessionMemoryBytes() {
+        return sessionIdMap.memoryBytes();
+    }
+
+    /**
+     * 初始化节点id，生成 sessionId 前必须完成，二选一：
+     * 1，启动时显式调用（NacosServiceRegistry 注册本实例时会以实例 id 调用）
+     * 2，启动参数 -Dserver.instanceId，首次生成 sessionId 时自动初始化
+     *
+     * @param instanceId 本实例 id（数字 serverId，0..1023）
+     */
+    public static synchronized void initNode(String instanceId) {
+        SnowflakeIdGenerator next = SnowflakeIdGenerator.ofInstanceId(instanceId);
+        SnowflakeIdGenerator current = generator;
+        if (current != null && current.getNodeId() != next.getNodeId()) {
+            System.err.println("sessionId 节点id变更: " + current.getNodeId() + " -> " + next.getNodeId());
+        }
+        generator = next;
+    }
+
+    private static SnowflakeIdGenerator generator() {
+        SnowflakeIdGenerator current = generator;
+        if (current != null) {
+            return current;
+        }
+        synchronized (EightByteSessionIdGenerator.class) {
+            if (generator == null) {
+                String instanceId = System.getProperty(INSTANCE_ID_PROPERTY);
+                if (instanceId == null) {
+                    throw new IllegalStateException("sessionId 节点id未初始化, 需先调用 initNode 或设置 -D" + INSTANCE_ID_PROPERTY);
+                }
+                initNode(instanceId);
+            }
+            return generator;
+        }
+    }
+
+    /**
+     * 生成8字节sessionId（Snowflake：时间戳 + 节点id + 序号，全局唯一且单调递增）
      * @param userId 用户ID
      * @return 生成的sessionId，作为long类型
      */
     public static long generateSessionId(long userId) {
-        // 获取当前时间戳（秒）
-        long currentTimeSeconds = System.currentTimeMillis() / 1000;
-        // 这里我们简单地将时间戳的低32位和用户ID的低16位拼接起来（注意：这可能会增加冲突的风险）
-        long sessionId = ((currentTimeSeconds & 0xFFFFFFFFL) << 16) | (userId & 0xFFFF);
-        sessionIdMap.put(userId,sessionId);
+        long sessionId = generator().nextId();
+        sessionIdMap.put(userId, sessionId, NO_SESSION);
         return sessionId;
     }
 
     /**
-     * 生成一个基于用户ID和时间戳的8字节大小的sessionId
+     * 生成8字节sessionId的字节形式（大端）
      *
      * @param userId 用户ID（long类型）
-     * @param timestamp 时间戳（long类型）
-     * @return 生成的sessionId，作为byte数组
+     * @param timestamp 已不再使用，时间取自生成器
+     * @return 生成的sessionId，作为byte数组（不登记到 sessionIdMap）
+     * @deprecated 使用 {@link #generateSessionId(long)}
      */
+    @Deprecated
     public static byte[] generateSessionId(long userId, long timestamp) {
-        try {
-            // 将用户ID和时间戳转换为字节数组
-            byte[] userIdBytes = longToBytes(userId);
-            byte[] timestampBytes = longToBytes(timestamp);
-
-            // 将两者组合成一个字节数组（这里简单地将它们拼接起来）
-            byte[] combinedBytes = new byte[userIdBytes.length + timestampBytes.length];
-            System.arraycopy(userIdBytes, 0, combinedBytes, 0, userIdBytes.length);
-            System.arraycopy(timestampBytes, 0, combinedBytes, userIdBytes.length, timestampBytes.length);
-
-            // 计算哈希值
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = digest.digest(combinedBytes);
-
-            // 截取哈希值的前8个字节
-            byte[] sessionId = new byte[8];
-            System.arraycopy(hashBytes, 0, sessionId, 0, 8);
-
-            return sessionId;
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256算法不可用", e);
-        }
+        return longToBytes(generator().nextId());
     }
 
     // 辅助方法：将long转换为byte数组
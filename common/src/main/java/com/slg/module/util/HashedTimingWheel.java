@@ -0,0 +1,215 @@
+package com.slg.module.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮（单线程推进）
+ * 1，条目为侵入式双向链表节点，入轮/出轮不分配对象
+ * 2，截止时间可变：条目到达所在槽位时重新计算 deadline()，未到期则挂到新的槽位（续期无需操作时间轮）
+ * 3，每个 tick 只处理当前槽位，到期处理与总条目数无关
+ * 4，schedule/cancel 可在任意线程调用，链表只由推进线程修改
+ *
+ * @param <E> 条目类型
+ */
+public final class HashedTimingWheel<E extends HashedTimingWheel.Entry> {
+
+    /**
+     * 时间轮条目
+     */
+    public abstract static class Entry {
+        private Entry prev;
+        private Entry next;
+        private Bucket bucket;
+        private volatile boolean cancelled;
+
+        /**
+         * 当前截止时间（毫秒），可随访问变化
+         */
+        protected abstract long deadline();
+
+        /**
+         * 取消，推进线程处理到该条目时移除
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final class Bucket {
+        private Entry head;
+        private Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = tail;
+            entry.next = null;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        void remove(Entry entry) {
+            Entry next = entry.next;
+            if (entry.prev != null) {
+                entry.prev.next = next;
+            } else {
+                head = next;
+            }
+            if (next != null) {
+                next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final Bucket[] buckets;
+    private final Consumer<E> expireHandler;
+    // 其他线程提交的新条目，推进时挂入槽位
+    private final Queue<E> pending = new ConcurrentLinkedQueue<>();
+    // 已处理到的 tick 序号
+    private long currentTick = -1;
+    private int size;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * @param tickMillis    每格时长
+     * @param wheelSize     槽位数，向上取整为 2 的幂
+     * @param expireHandler 到期回调，在推进线程执行
+     */
+    public HashedTimingWheel(long tickMillis, int wheelSize, Consumer<E> expireHandler) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.expireHandler = expireHandler;
+    }
+
+    /**
+     * 加入时间轮，可在任意线程调用
+     */
+    public void schedule(E entry) {
+        pending.offer(entry);
+    }
+
+    /**
+     * 推进到 nowMillis，只能在单一线程调用
+     *
+     * @return 本次到期条目数
+     */
+    @SuppressWarnings("unchecked")
+    public int advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (currentTick < 0) {
+            currentTick = targetTick - 1;
+        }
+        E entry;
+        while ((entry = pending.poll()) != null) {
+            if (!entry.isCancelled() && ((Entry) entry).bucket == null) {
+                bucketFor(entry.deadline(), currentTick + 1).add(entry);
+                size++;
+            }
+        }
+        int expired = 0;
+        // 最多转一圈，落后更多时剩余槽位在本圈内已覆盖
+        long from = Math.max(currentTick + 1, targetTick - mask);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Bucket bucket = buckets[(int) (tick & mask)];
+            Entry e = bucket.head;
+            while (e != null) {
+                Entry next = e.next;
+                if (e.isCancelled()) {
+                    bucket.remove(e);
+                    size--;
+                } else {
+                    long deadline = e.deadline();
+                    if (deadline <= nowMillis) {
+                        bucket.remove(e);
+                        size--;
+                        expired++;
+                        try {
+                            expireHandler.accept((E) e);
+                        } catch (Throwable t) {
+                            System.err.println("时间轮到期处理异常: " + t);
+                        }
+                    } else {
+                        // 未到期：挂到截止时间所在槽位，最早为下一格
+                        Bucket target = bucketFor(deadline, targetTick + 1);
+                        if (target != bucket) {
+                            bucket.remove(e);
+                            target.add(e);
+                        }
+                    }
+                }
+                e = next;
+            }
+        }
+        currentTick = targetTick;
+        return expired;
+    }
+
+    private Bucket bucketFor(long deadline, long minTick) {
+        long tick = Math.max(deadline / tickMillis, minTick);
+        return buckets[(int) (tick & mask)];
+    }
+
+    /**
+     * 时间轮中的条目数（不含未挂入的新条目），仅推进线程读取准确
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 启动独立线程按 tickMillis 推进
+     */
+    public synchronized void start(String threadName) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
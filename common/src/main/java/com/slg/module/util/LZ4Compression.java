@@ -3,15 +3,14 @@ package com.slg.module.util;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
-import io.netty.util.Recycler;
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4FastDecompressor;
 
 /**
- * 使用 Netty Recycler 优化的 LZ4 压缩工具类
+ * LZ4 压缩工具类
  * 特性：
- * 1. 使用 Netty Recycler 实现对象池，高效重用压缩器/解压器
+ * 1. LZ4Factory 返回的压缩器/解压器无状态且线程安全，全局共享一个实例，无需对象池
  * 2. 支持零拷贝操作 Netty ByteBuf
  * 3. 自动处理堆内/直接内存
  * 4. 提供传统 byte[] 数组的兼容方法
@@ -25,42 +24,27 @@ public class LZ4Compression {
     private static final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
 
     /**
-     * 压缩器对象池（使用 Netty Recycler 实现）
-     * 每个线程有自己的对象池，减少竞争
+     * 压缩器（线程安全，全局共享）
      */
-    private static final Recycler<LZ4Compressor> COMPRESSOR_RECYCLER = new Recycler<LZ4Compressor>() {
-        @Override
-        protected LZ4Compressor newObject(Handle<LZ4Compressor> handle) {
-            // 创建新的压缩器实例
-            LZ4Compressor compressor = factory.fastCompressor();
-            // 可以将 handle 存储在压缩器对象中以便回收，但这里不需要
-            return compressor;
-        }
-    };
+    private static final LZ4Compressor COMPRESSOR = factory.fastCompressor();
 
     /**
-     * 解压器对象池（使用 Netty Recycler 实现）
+     * 解压器（线程安全）
      */
-    private static final Recycler<LZ4FastDecompressor> DECOMPRESSOR_RECYCLER = new Recycler<LZ4FastDecompressor>() {
-        @Override
-        protected LZ4FastDecompressor newObject(Handle<LZ4FastDecompressor> handle) {
-            // 创建新的解压器实例
-            return factory.fastDecompressor();
-        }
-    };
+    private static final LZ4FastDecompressor DECOMPRESSOR = factory.fastDecompressor();
 
     /**
-     * 获取压缩器（从对象池中获取）
+     * 获取压缩器
      */
     private static LZ4Compressor getCompressor() {
-        return COMPRESSOR_RECYCLER.get();
+        return COMPRESSOR;
     }
 
     /**
-     * 获取解压器（从对象池中获取）
+     * 获取解压器
      */
     private static LZ4FastDecompressor getDecompressor() {
-        return DECOMPRESSOR_RECYCLER.get();
+        return DECOMPRESSOR;
     }
 
     /**
@@ -118,7 +102,7 @@ public class LZ4Compression {
 
             return dst;
         } finally {
-            // Recycler 会自动回收对象，不需要显式释放
+            // 压缩器/解压器为共享实例，无需归还
         }
     }
 
@@ -172,7 +156,7 @@ public class LZ4Compression {
 
             return restored;
         } finally {
-            // Recycler 会自动回收对象，不需要显式释放
+            // 压缩器/解压器为共享实例，无需归还
         }
     }
 
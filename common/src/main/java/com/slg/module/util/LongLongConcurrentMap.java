@@ -0,0 +1,391 @@
+package com.slg.module.util;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * long -> long 并发哈希表（分段 + 开放寻址线性探测，无装箱）
+ * 1，读：StampedLock 乐观读，无竞争时不加锁
+ * 2，写：分段写锁
+ * 3，每个条目记录最近访问时间（秒，基于 SystemTimeCache），expireIdle 按空闲时间清理
+ * 4，size()/memoryBytes() 提供容量与内存估算
+ * 访问时间在读路径上无锁写入，并发扩容/删除时可能丢失一次更新，只会让条目晚一点过期
+ */
+public final class LongLongConcurrentMap {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 16;
+    // 空槽位标记，key 为 0 的条目单独存放
+    private static final long FREE_KEY = 0L;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    // 访问时间基准（秒）
+    private final long baseSeconds;
+
+    /**
+     * @param expectedSize 预计条目数
+     * @param concurrency  分段数，向上取整为 2 的幂
+     */
+    public LongLongConcurrentMap(int expectedSize, int concurrency) {
+        int segmentCount = 1;
+        while (segmentCount < concurrency) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        int perSegment = Math.max(MIN_CAPACITY, (int) (expectedSize / segmentCount / LOAD_FACTOR) + 1);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(tableSizeFor(perSegment));
+        }
+        this.baseSeconds = SystemTimeCache.currentTimeMillis() / 1000;
+    }
+
+    public long get(long key, long defaultValue) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        int now = nowSeconds();
+        long stamp = segment.tryOptimisticRead();
+        if (stamp != 0) {
+            long value = segment.find(key, hash, defaultValue, now);
+            if (segment.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = segment.readLock();
+        try {
+            return segment.find(key, hash, defaultValue, now);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return 旧值，不存在时返回 defaultValue
+     */
+    public long put(long key, long value, long defaultValue) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            return segment.put(key, hash, value, defaultValue, nowSeconds());
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return 被删除的值，不存在时返回 defaultValue
+     */
+    public long remove(long key, long defaultValue) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            return segment.remove(key, hash, defaultValue);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 当前值等于 expectedValue 时删除
+     *
+     * @return 是否删除
+     */
+    public boolean removeIfEquals(long key, long expectedValue) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            // 用与 expectedValue 不同的值作为不存在标记
+            long missing = ~expectedValue;
+            if (segment.find(key, hash, missing, nowSeconds()) != expectedValue) {
+                return false;
+            }
+            segment.remove(key, hash, missing);
+            return true;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 刷新访问时间
+     */
+    public void touch(long key) {
+        get(key, FREE_KEY);
+    }
+
+    /**
+     * 清理超过 idleMillis 未访问的条目，逐段加锁
+     *
+     * @return 清理数量
+     */
+    public int expireIdle(long idleMillis) {
+        int deadline = nowSeconds() - (int) (idleMillis / 1000);
+        int removed = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.writeLock();
+            try {
+                removed += segment.expire(deadline);
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.writeLock();
+            try {
+                segment.reset(MIN_CAPACITY);
+            } finally {
+                segment.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * 条目数（各段无锁读取，近似值）
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * 估算占用内存（字节），只计算数组
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            // keys + values 各 8 字节，访问时间 4 字节，加数组头
+            bytes += (long) segment.keys.length * 20 + 3 * 16;
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    private int nowSeconds() {
+        return (int) (SystemTimeCache.currentTimeMillis() / 1000 - baseSeconds);
+    }
+
+    // murmur3 fmix64
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = MIN_CAPACITY;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static final class Segment extends StampedLock {
+        private static final long serialVersionUID = 1L;
+
+        private long[] keys;
+        private long[] values;
+        private int[] accessTimes;
+        private volatile int size;
+        private int threshold;
+        // key 为 0 的条目
+        private boolean hasZeroKey;
+        private long zeroValue;
+        private int zeroAccessTime;
+
+        Segment(int capacity) {
+            reset(capacity);
+        }
+
+        void reset(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            accessTimes = new int[capacity];
+            threshold = (int) (capacity * LOAD_FACTOR);
+            hasZeroKey = false;
+            zeroValue = 0;
+            size = 0;
+        }
+
+        /**
+         * 乐观读时数组可能被并发替换，需保证不越界、不死循环，结果由调用方 validate
+         */
+        long find(long key, long hash, long defaultValue, int now) {
+            if (key == FREE_KEY) {
+                if (hasZeroKey) {
+                    zeroAccessTime = now;
+                    return zeroValue;
+                }
+                return defaultValue;
+            }
+            long[] keys = this.keys;
+            long[] values = this.values;
+            int[] accessTimes = this.accessTimes;
+            int length = keys.length;
+            if (values.length != length || accessTimes.length != length) {
+                return defaultValue;
+            }
+            int mask = length - 1;
+            int index = (int) hash & mask;
+            for (int probe = 0; probe < length; probe++) {
+                long k = keys[index];
+                if (k == key) {
+                    accessTimes[index] = now;
+                    return values[index];
+                }
+                if (k == FREE_KEY) {
+                    return defaultValue;
+                }
+                index = (index + 1) & mask;
+            }
+            return defaultValue;
+        }
+
+        long put(long key, long hash, long value, long defaultValue, int now) {
+            if (key == FREE_KEY) {
+                long old = hasZeroKey ? zeroValue : defaultValue;
+                if (!hasZeroKey) {
+                    hasZeroKey = true;
+                    size = size + 1;
+                }
+                zeroValue = value;
+                zeroAccessTime = now;
+                return old;
+            }
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            for (; ; ) {
+                long k = keys[index];
+                if (k == key) {
+                    long old = values[index];
+                    values[index] = value;
+                    accessTimes[index] = now;
+                    return old;
+                }
+                if (k == FREE_KEY) {
+                    keys[index] = key;
+                    values[index] = value;
+                    accessTimes[index] = now;
+                    size = size + 1;
+                    if (size > threshold) {
+                        rehash(keys.length << 1);
+                    }
+                    return defaultValue;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        long remove(long key, long hash, long defaultValue) {
+            if (key == FREE_KEY) {
+                if (!hasZeroKey) {
+                    return defaultValue;
+                }
+                hasZeroKey = false;
+                size = size - 1;
+                return zeroValue;
+            }
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            for (; ; ) {
+                long k = keys[index];
+                if (k == key) {
+                    long old = values[index];
+                    removeAt(index);
+                    return old;
+                }
+                if (k == FREE_KEY) {
+                    return defaultValue;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        int expire(int deadline) {
+            int removed = 0;
+            if (hasZeroKey && zeroAccessTime < deadline) {
+                hasZeroKey = false;
+                size = size - 1;
+                removed++;
+            }
+            // 删除后后续条目会前移到当前位置，因此删除时不前进
+            int i = 0;
+            while (i < keys.length) {
+                if (keys[i] != FREE_KEY && accessTimes[i] < deadline) {
+                    removeAt(i);
+                    removed++;
+                } else {
+                    i++;
+                }
+            }
+            return removed;
+        }
+
+        // 线性探测的后移删除，不留墓碑
+        private void removeAt(int index) {
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = (hole + 1) & mask;
+            while (keys[next] != FREE_KEY) {
+                int ideal = (int) mix(keys[next]) & mask;
+                // next 的理想位置不在 (hole, next] 区间内时，可以移到 hole
+                boolean movable = hole <= next
+                        ? (ideal <= hole || ideal > next)
+                        : (ideal <= hole && ideal > next);
+                if (movable) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    accessTimes[hole] = accessTimes[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = FREE_KEY;
+            values[hole] = 0;
+            accessTimes[hole] = 0;
+            size = size - 1;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            int[] oldTimes = accessTimes;
+            long[] newKeys = new long[capacity];
+            long[] newValues = new long[capacity];
+            int[] newTimes = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                long k = oldKeys[i];
+                if (k == FREE_KEY) {
+                    continue;
+                }
+                int index = (int) mix(k) & mask;
+                while (newKeys[index] != FREE_KEY) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = k;
+                newValues[index] = oldValues[i];
+                newTimes[index] = oldTimes[i];
+            }
+            // 乐观读会检查三个数组长度一致，不一致时加读锁重试
+            values = newValues;
+            accessTimes = newTimes;
+            keys = newKeys;
+            threshold = (int) (capacity * LOAD_FACTOR);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.slg.module.util;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * long -> Object 并发哈希表（分段 + 开放寻址线性探测，key 无装箱）
+ * 与 LongLongConcurrentMap 结构相同：乐观读、分段写锁、后移删除
+ *
+ * @param <V> 值类型，不允许为 null
+ */
+public final class LongObjectConcurrentMap<V> {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 16;
+    private static final long FREE_KEY = 0L;
+
+    private final Segment<V>[] segments;
+    private final int segmentShift;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LongObjectConcurrentMap(int expectedSize, int concurrency) {
+        int segmentCount = 1;
+        while (segmentCount < concurrency) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        int perSegment = Math.max(MIN_CAPACITY, (int) (expectedSize / segmentCount / LOAD_FACTOR) + 1);
+        int capacity = MIN_CAPACITY;
+        while (capacity < perSegment) {
+            capacity <<= 1;
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(capacity);
+        }
+    }
+
+    public V get(long key) {
+        long hash = LongLongConcurrentMap.mix(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.tryOptimisticRead();
+        if (stamp != 0) {
+            V value = segment.find(key, hash);
+            if (segment.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = segment.readLock();
+        try {
+            return segment.find(key, hash);
+        } finally {
+            segment.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return 旧值
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        long hash = LongLongConcurrentMap.mix(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            return segment.put(key, hash, value, false);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return 已存在的值，不存在时写入并返回 null
+     */
+    public V putIfAbsent(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        long hash = LongLongConcurrentMap.mix(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            return segment.put(key, hash, value, true);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        long hash = LongLongConcurrentMap.mix(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            return segment.remove(key, hash, null);
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 仅当当前值为 expected（同一对象）时删除
+     */
+    public boolean remove(long key, V expected) {
+        long hash = LongLongConcurrentMap.mix(key);
+        Segment<V> segment = segmentFor(hash);
+        long stamp = segment.writeLock();
+        try {
+            return segment.remove(key, hash, expected) != null;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 逐段加读锁遍历
+     */
+    public void forEach(BiConsumer<Long, V> action) {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.readLock();
+            try {
+                segment.forEach(action);
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * 条目数（近似值）
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * 估算表本身占用内存（字节），不含值对象
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Segment<V> segment : segments) {
+            // key 8 字节 + 引用 4 字节（压缩指针）
+            bytes += (long) segment.keys.length * 12 + 2 * 16;
+        }
+        return bytes;
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    // 继承 StampedLock 只为省去一次间接引用，不会被序列化
+    @SuppressWarnings("serial")
+    private static final class Segment<V> extends StampedLock {
+        private static final long serialVersionUID = 1L;
+
+        private long[] keys;
+        private Object[] values;
+        private volatile int size;
+        private int threshold;
+        private Object zeroValue;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            threshold = (int) (capacity * LOAD_FACTOR);
+        }
+
+        @SuppressWarnings("unchecked")
+        V find(long key, long hash) {
+            if (key == FREE_KEY) {
+                return (V) zeroValue;
+            }
+            long[] keys = this.keys;
+            Object[] values = this.values;
+            int length = keys.length;
+            if (values.length != length) {
+                return null;
+            }
+            int mask = length - 1;
+            int index = (int) hash & mask;
+            for (int probe = 0; probe < length; probe++) {
+                long k = keys[index];
+                if (k == key) {
+                    return (V) values[index];
+                }
+                if (k == FREE_KEY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        V put(long key, long hash, V value, boolean onlyIfAbsent) {
+            if (key == FREE_KEY) {
+                V old = (V) zeroValue;
+                if (old == null) {
+                    size = size + 1;
+                }
+                if (old == null || !onlyIfAbsent) {
+                    zeroValue = value;
+                }
+                return old;
+            }
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            for (; ; ) {
+                long k = keys[index];
+                if (k == key) {
+                    V old = (V) values[index];
+                    if (!onlyIfAbsent) {
+                        values[index] = value;
+                    }
+                    return old;
+                }
+                if (k == FREE_KEY) {
+                    keys[index] = key;
+                    values[index] = value;
+                    size = size + 1;
+                    if (size > threshold) {
+                        rehash(keys.length << 1);
+                    }
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key, long hash, V expected) {
+            if (key == FREE_KEY) {
+                V old = (V) zeroValue;
+                if (old == null || (expected != null && old != expected)) {
+                    return null;
+                }
+                zeroValue = null;
+                size = size - 1;
+                return old;
+            }
+            int mask = keys.length - 1;
+            int index = (int) hash & mask;
+            for (; ; ) {
+                long k = keys[index];
+                if (k == key) {
+                    V old = (V) values[index];
+                    if (expected != null && old != expected) {
+                        return null;
+                    }
+                    removeAt(index);
+                    return old;
+                }
+                if (k == FREE_KEY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(BiConsumer<Long, V> action) {
+            if (zeroValue != null) {
+                action.accept(FREE_KEY, (V) zeroValue);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != FREE_KEY) {
+                    action.accept(keys[i], (V) values[i]);
+                }
+            }
+        }
+
+        private void removeAt(int index) {
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = (hole + 1) & mask;
+            while (keys[next] != FREE_KEY) {
+                int ideal = (int) LongLongConcurrentMap.mix(keys[next]) & mask;
+                boolean movable = hole <= next
+                        ? (ideal <= hole || ideal > next)
+                        : (ideal <= hole && ideal > next);
+                if (movable) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = FREE_KEY;
+            values[hole] = null;
+            size = size - 1;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[capacity];
+            Object[] newValues = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                long k = oldKeys[i];
+                if (k == FREE_KEY) {
+                    continue;
+                }
+                int index = (int) LongLongConcurrentMap.mix(k) & mask;
+                while (newKeys[index] != FREE_KEY) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = k;
+                newValues[index] = oldValues[i];
+            }
+            values = newValues;
+            keys = newKeys;
+            threshold = (int) (capacity * LOAD_FACTOR);
+        }
+    }
+}
@@ -1,11 +1,91 @@
-//package com.slg.module.util;
-//
-//import message.Account;
-//import org.springframework.stereotype.Component;
-//
-///**
-// * 对象工厂管理
-// */
-//public class Pools {
-//    public static final ProtobufBuilderPool<Account.KeyExchangeResp, Account.KeyExchangeResp.Builder> KeyExchangeRespPOOL = new ProtobufBuilderPool<>(Account.KeyExchangeResp::newBuilder);
-//}
+package com.slg.module.util;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 对象池管理
+ * 1，所有 RecyclerPool 创建时自动注册
+ * 2，服务启动后调用 warmUp(workerGroup)，在每个 IO 线程上预热所有池，避免重启后集中分配
+ * 3，stats() 导出各池当前及峰值容量
+ */
+public final class Pools {
+    private static final List<RecyclerPool<?>> POOLS = new CopyOnWriteArrayList<>();
+
+    // common 内置的池，预热前确保已加载（池在类初始化时注册）
+    private static final String[] BUILTIN_POOL_HOLDERS = {
+            "com.slg.module.message.ByteBufferServerMessage",
+            "com.slg.module.message.MsgResponse",
+            "com.slg.module.util.RecycledObject",
+            "com.slg.module.util.CryptoUtilsPool",
+            "com.slg.module.util.BouncyCastleCryptoUtils",
+    };
+
+    private Pools() {
+    }
+
+    static void register(RecyclerPool<?> pool) {
+        POOLS.add(pool);
+    }
+
+    public static List<RecyclerPool<?>> getPools() {
+        loadBuiltinPools();
+        return Collections.unmodifiableList(POOLS);
+    }
+
+    /**
+     * 在 EventLoopGroup 的每个线程上预热所有池，阻塞直到全部完成
+     *
+     * @param group IO 线程组
+     * @return 预热的对象总数
+     */
+    public static int warmUp(EventLoopGroup group) {
+        loadBuiltinPools();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (EventExecutor executor : group) {
+            futures.add(executor.submit(Pools::warmUpCurrentThread));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.syncUninterruptibly().getNow();
+        }
+        System.out.println("对象池预热完成, 线程数: " + futures.size() + ", 对象数: " + total);
+        return total;
+    }
+
+    /**
+     * 在当前线程预热所有池（业务线程/非 Netty 线程使用）
+     */
+    public static int warmUpCurrentThread() {
+        loadBuiltinPools();
+        int total = 0;
+        for (RecyclerPool<?> pool : POOLS) {
+            total += pool.warmUpCurrentThread();
+        }
+        return total;
+    }
+
+    public static List<RecyclerPool.Stats> stats() {
+        List<RecyclerPool.Stats> result = new ArrayList<>(POOLS.size());
+        for (RecyclerPool<?> pool : POOLS) {
+            result.add(pool.stats());
+        }
+        return result;
+    }
+
+    private static void loadBuiltinPools() {
+        for (String className : BUILTIN_POOL_HOLDERS) {
+            try {
+                Class.forName(className, true, Pools.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("对象池类加载失败: " + className, e);
+            }
+        }
+    }
+}
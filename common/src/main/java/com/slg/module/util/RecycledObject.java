@@ -5,12 +5,8 @@ import io.netty.util.Recycler;
 
 public class RecycledObject {
     // 1. 定义 Recycler 和 Handle
-    private static final Recycler<RecycledObject> RECYCLER = new Recycler<RecycledObject>() {
-        @Override
-        protected RecycledObject newObject(Handle<RecycledObject> handle) {
-            return new RecycledObject(handle);
-        }
-    };
+    private static final RecyclerPool<RecycledObject> POOL =
+            new RecyclerPool<>("recycledObject", 4096, 0, RecycledObject::new, RecycledObject::recycle);
 
     private final Recycler.Handle<RecycledObject> handle;
 //    private String data;
@@ -25,13 +21,13 @@ public class RecycledObject {
 
     // 3. 静态方法获取对象（从池中借用）
     public static RecycledObject newInstance() {
-        return RECYCLER.get();
+        return POOL.get();
     }
 
     // 4. 归还对象到池
     public void recycle() {
         data = null; // 必须重置对象状态！
-        handle.recycle(this);
+        POOL.recycle(this, handle);
     }
 
     // 业务方法
@@ -0,0 +1,149 @@
+package com.slg.module.util;
+
+import io.netty.util.Recycler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 带容量配置、预热和统计的 Recycler 封装
+ * 配置（JVM 参数，name 为池名称）：
+ * -Dpool.{name}.maxCapacity  每个线程最多缓存的对象数
+ * -Dpool.{name}.warmUp       每个线程启动时预热的对象数，不超过 maxCapacity
+ * -Dpool.{name}.ratio        新对象入池比例，1 表示全部入池（Netty 默认 8，预热会失效）
+ *
+ * 统计：
+ * 借出数及其峰值在 get()/recycle() 时实时更新，峰值不会漏掉两次采样之间的突发
+ * 池内对象数只是上限（创建数 - 借出数），超过线程容量或跨线程回收被 Recycler 丢弃的对象无法感知
+ *
+ * @param <T> 池化对象类型
+ */
+public final class RecyclerPool<T> {
+
+    /**
+     * 对象创建接口，对象需持有 handle 用于回收
+     */
+    public interface ObjectCreator<T> {
+        T newObject(Recycler.Handle<T> handle);
+    }
+
+    // Netty 默认每线程块大小
+    private static final int CHUNK_SIZE = 32;
+
+    private final String name;
+    private final int maxCapacityPerThread;
+    private final int warmUpSize;
+    private final Recycler<T> recycler;
+    // 预热时归还对象的方法（对象自身的 recycle）
+    private final Consumer<T> recycleAction;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final AtomicLong inUse = new AtomicLong();
+    private final AtomicLong peakInUse = new AtomicLong();
+    // 池内对象上限的峰值，在 stats()/预热时采样
+    private final AtomicLong peakIdleUpperBound = new AtomicLong();
+
+    public RecyclerPool(String name, int defaultMaxCapacity, int defaultWarmUp,
+                        ObjectCreator<T> creator, Consumer<T> recycleAction) {
+        this.name = name;
+        this.maxCapacityPerThread = Integer.getInteger("pool." + name + ".maxCapacity", defaultMaxCapacity);
+        this.warmUpSize = Math.min(Integer.getInteger("pool." + name + ".warmUp", defaultWarmUp), maxCapacityPerThread);
+        this.recycleAction = recycleAction;
+        int ratio = Integer.getInteger("pool." + name + ".ratio", 1);
+        this.recycler = new Recycler<T>(maxCapacityPerThread, ratio, CHUNK_SIZE) {
+            @Override
+            protected T newObject(Handle<T> handle) {
+                created.increment();
+                return creator.newObject(handle);
+            }
+        };
+        Pools.register(this);
+    }
+
+    /**
+     * 从当前线程的池中借出
+     */
+    public T get() {
+        borrowed.increment();
+        long current = inUse.incrementAndGet();
+        if (current > peakInUse.get()) {
+            peakInUse.accumulateAndGet(current, Math::max);
+        }
+        return recycler.get();
+    }
+
+    /**
+     * 归还对象，由对象自身的 recycle 方法调用
+     */
+    public void recycle(T object, Recycler.Handle<T> handle) {
+        returned.increment();
+        inUse.decrementAndGet();
+        handle.recycle(object);
+    }
+
+    /**
+     * 在当前线程预热：借出 warmUpSize 个对象后全部归还
+     *
+     * @return 预热对象数
+     */
+    @SuppressWarnings("unchecked")
+    public int warmUpCurrentThread() {
+        if (warmUpSize <= 0) {
+            return 0;
+        }
+        Object[] objects = new Object[warmUpSize];
+        for (int i = 0; i < warmUpSize; i++) {
+            objects[i] = get();
+        }
+        for (Object object : objects) {
+            recycleAction.accept((T) object);
+        }
+        // 采样池内对象上限的峰值
+        stats();
+        return warmUpSize;
+    }
+
+    /**
+     * 当前统计快照，同时采样池内对象上限的峰值
+     */
+    public Stats stats() {
+        long current = Math.max(0, inUse.get());
+        long idleUpperBound = Math.max(0, created.sum() - current);
+        long idlePeak = peakIdleUpperBound.accumulateAndGet(idleUpperBound, Math::max);
+        return new Stats(name, maxCapacityPerThread, created.sum(), current, idleUpperBound, peakInUse.get(), idlePeak);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxCapacityPerThread() {
+        return maxCapacityPerThread;
+    }
+
+    public int getWarmUpSize() {
+        return warmUpSize;
+    }
+
+    /**
+     * 池统计
+     *
+     * @param created     累计创建数
+     * @param inUse              当前借出数
+     * @param idleUpperBound     池内对象数上限（创建数 - 借出数，含被 Recycler 丢弃的对象）
+     * @param peakInUse          借出峰值（实时）
+     * @param peakIdleUpperBound 池内对象上限的峰值（采样）
+     */
+    public record Stats(String name, int maxCapacityPerThread, long created, long inUse, long idleUpperBound,
+                        long peakInUse, long peakIdleUpperBound) {
+        @Override
+        public String toString() {
+            return "pool[" + name + "] capacity/thread=" + maxCapacityPerThread + ", created=" + created
+                    + ", inUse=" + inUse + ", idle<=" + idleUpperBound + ", peakInUse=" + peakInUse
+                    + ", peakIdle<=" + peakIdleUpperBound;
+        }
+    }
+}
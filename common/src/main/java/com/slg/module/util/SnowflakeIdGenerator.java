@@ -0,0 +1,88 @@
+package com.slg.module.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 8字节全局唯一、单节点单调递增的 id 生成器（Snowflake）
+ * 位布局（最高位恒为 0）：
+ * | 41位 毫秒时间戳（相对 EPOCH，约 69 年） | 10位 节点id | 12位 毫秒内序号 |
+ *
+ * 1，无锁：时间戳和序号合并在一个 AtomicLong 中 CAS 推进，无对象分配
+ * 2，同一毫秒序号用完（4096）时借用下一毫秒，不等待
+ * 3，时钟回拨时沿用上一次的逻辑时间继续递增，保证单调
+ */
+public final class SnowflakeIdGenerator {
+    // 2024-01-01 00:00:00 UTC
+    public static final long EPOCH = 1704067200000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private final long nodeBits;
+    // 高位为逻辑时间戳，低 SEQUENCE_BITS 位为序号
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id out of range [0, " + MAX_NODE_ID + "]: " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * 根据实例 id（即 serverId，必须为数字）生成节点 id
+     * 节点 id 直接取实例 id，不在 [0, MAX_NODE_ID] 内或非数字时抛 IllegalArgumentException，不取模、不哈希，避免两个实例得到同一节点 id
+     */
+    public static int nodeIdOfInstance(String instanceId) {
+        long id;
+        try {
+            id = Long.parseLong(String.valueOf(instanceId).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("实例id必须为数字: " + instanceId);
+        }
+        if (id < 0 || id > MAX_NODE_ID) {
+            throw new IllegalArgumentException("实例id超出节点id范围 [0, " + MAX_NODE_ID + "]: " + instanceId);
+        }
+        return (int) id;
+    }
+
+    public static SnowflakeIdGenerator ofInstanceId(String instanceId) {
+        return new SnowflakeIdGenerator(nodeIdOfInstance(instanceId));
+    }
+
+    public long nextId() {
+        for (; ; ) {
+            long last = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long next = now > (last >>> SEQUENCE_BITS)
+                    ? now << SEQUENCE_BITS
+                    // 同一毫秒或时钟回拨：序号 +1，溢出时自然进位到下一毫秒
+                    : last + 1;
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * id 中的生成时间（毫秒时间戳）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH;
+    }
+
+    public static int nodeIdOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    public static int sequenceOf(long id) {
+        return (int) (id & SEQUENCE_MASK);
+    }
+}